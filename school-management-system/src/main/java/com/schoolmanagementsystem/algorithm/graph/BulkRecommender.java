@@ -0,0 +1,93 @@
+package com.schoolmanagementsystem.algorithm.graph;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Computes course recommendations for every student of a bitset index in parallel.
+ * Students are split recursively across a ForkJoinPool; each worker thread reuses one
+ * RecommendationRanker, so the pass allocates nothing per student. The rankers belong to the
+ * run and are released when it returns, not kept on the pool's threads.
+ */
+class BulkRecommender {
+    private static final int LEAF_SIZE = 64;
+
+    private final CourseBitsetIndex index;
+    private final RecommendationRanker.Model model;
+    private final int maxRecommendations;
+
+    // Fixed-width output slots, maxRecommendations per student
+    private final int[] slotCourses;
+    private final double[] slotScores;
+    private final int[] slotCounts;
+
+    BulkRecommender(CourseBitsetIndex index, RecommendationRanker.Model model, int maxRecommendations) {
+        this.index = index;
+        this.model = model;
+        this.maxRecommendations = maxRecommendations;
+        int slots = Math.multiplyExact(index.size(), maxRecommendations);
+        this.slotCourses = new int[slots];
+        this.slotScores = new double[slots];
+        this.slotCounts = new int[index.size()];
+    }
+
+    RecommendationTable run(ForkJoinPool pool) {
+        Map<Thread, RecommendationRanker> rankers = new ConcurrentHashMap<>();
+        pool.invoke(new RangeTask(0, index.size(), rankers));
+
+        int n = index.size();
+        IdDictionary students = new IdDictionary();
+        int[] offsets = new int[n + 1];
+        for (int s = 0; s < n; s++) {
+            students.add(index.studentIdAt(s));
+            offsets[s + 1] = offsets[s] + slotCounts[s];
+        }
+        int[] courseIds = new int[offsets[n]];
+        double[] scores = new double[offsets[n]];
+        for (int s = 0; s < n; s++) {
+            System.arraycopy(slotCourses, s * maxRecommendations, courseIds, offsets[s], slotCounts[s]);
+            System.arraycopy(slotScores, s * maxRecommendations, scores, offsets[s], slotCounts[s]);
+        }
+        return new RecommendationTable(students, offsets, courseIds, scores);
+    }
+
+    private void recommendFor(int target, RecommendationRanker ranker) {
+        int base = target * maxRecommendations;
+        int count = ranker.rank(model, target, maxRecommendations, slotCourses, slotScores, base);
+        for (int i = 0; i < count; i++) {
+            slotCourses[base + i] = index.courseIdAt(slotCourses[base + i]);
+        }
+        slotCounts[target] = count;
+    }
+
+    private class RangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        // One ranker per worker thread for this run
+        private final Map<Thread, RecommendationRanker> rankers;
+
+        RangeTask(int from, int to, Map<Thread, RecommendationRanker> rankers) {
+            this.from = from;
+            this.to = to;
+            this.rankers = rankers;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LEAF_SIZE) {
+                RecommendationRanker ranker = rankers.computeIfAbsent(Thread.currentThread(),
+                        thread -> new RecommendationRanker(new SimilarityScanner(index)));
+                for (int s = from; s < to; s++) {
+                    recommendFor(s, ranker);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new RangeTask(from, mid, rankers), new RangeTask(mid, to, rankers));
+        }
+    }
+}
@@ -0,0 +1,404 @@
+package com.schoolmanagementsystem.algorithm.graph;
+
+import java.nio.IntBuffer;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Student-course adjacency stored as compressed sparse rows (CSR) in both directions.
+ *
+ * Student and course IDs are mapped to dense indexes. Each direction keeps a sorted base
+ * (int[] offsets plus int[] targets) and a delta buffer of edges added since the last
+ * compaction, chained per row through primitive arrays. Removed base edges are remembered as
+ * packed pairs. Once the delta or the removals grow past a fraction of the base, both
+ * directions are rebuilt into a fresh base, which keeps lookups close to pure CSR cost.
+ *
+ * The base arrays are held as IntBuffers so that a graph loaded from a snapshot can use the
+ * memory-mapped file directly; a compaction always produces heap buffers.
+ */
+class CompactAdjacency {
+    private static final int MIN_COMPACTION_THRESHOLD = 4096;
+
+    private final IdDictionary studentIds = new IdDictionary();
+    private final IdDictionary courseIds = new IdDictionary();
+    private final Direction byStudent = new Direction();
+    private final Direction byCourse = new Direction();
+
+    // Base edges removed since the last compaction, packed as studentIndex << 32 | courseIndex
+    private final LongHashSet removedBaseEdges = new LongHashSet(16);
+    private final RemovedEdges removedFromStudentRow = (row, target) -> removedBaseEdges.contains(pack(row, target));
+    private final RemovedEdges removedFromCourseRow = (row, target) -> removedBaseEdges.contains(pack(target, row));
+    private int edgeCount;
+
+    int addStudent(int studentId) {
+        int index = studentIds.add(studentId);
+        byStudent.ensureRows(studentIds.size());
+        return index;
+    }
+
+    int addCourse(int courseId) {
+        int index = courseIds.add(courseId);
+        byCourse.ensureRows(courseIds.size());
+        return index;
+    }
+
+    boolean addEdge(int studentId, int courseId) {
+        int s = addStudent(studentId);
+        int c = addCourse(courseId);
+        if (containsIndexes(s, c)) {
+            return false;
+        }
+        byStudent.append(s, c);
+        byCourse.append(c, s);
+        edgeCount++;
+
+        if (byStudent.deltaSize > compactionThreshold()) {
+            compact();
+        }
+        return true;
+    }
+
+    boolean removeEdge(int studentId, int courseId) {
+        int s = studentIds.indexOf(studentId);
+        int c = courseIds.indexOf(courseId);
+        if (s < 0 || c < 0) {
+            return false;
+        }
+
+        if (byStudent.removeDelta(s, c)) {
+            byCourse.removeDelta(c, s);
+        } else if (byStudent.baseContains(s, c) && removedBaseEdges.add(pack(s, c))) {
+            byStudent.degree[s]--;
+            byCourse.degree[c]--;
+        } else {
+            return false;
+        }
+        edgeCount--;
+
+        if (removedBaseEdges.size() > compactionThreshold()) {
+            compact();
+        }
+        return true;
+    }
+
+    boolean contains(int studentId, int courseId) {
+        int s = studentIds.indexOf(studentId);
+        int c = courseIds.indexOf(courseId);
+        return s >= 0 && c >= 0 && containsIndexes(s, c);
+    }
+
+    private boolean containsIndexes(int s, int c) {
+        return byStudent.deltaContains(s, c)
+                || (byStudent.baseContains(s, c) && !removedBaseEdges.contains(pack(s, c)));
+    }
+
+    /**
+     * Merges the delta buffers and pending removals of both directions into new sorted bases.
+     */
+    void compact() {
+        byStudent.rebuild(studentIds.size(), removedFromStudentRow);
+        byCourse.rebuild(courseIds.size(), removedFromCourseRow);
+        removedBaseEdges.clear();
+    }
+
+    private int compactionThreshold() {
+        return Math.max(MIN_COMPACTION_THRESHOLD, byStudent.targets.limit() / 8);
+    }
+
+    // === Snapshot support ===
+
+    /**
+     * Adjacency over existing base arrays, e.g. slices of a mapped snapshot file. The ID arrays are
+     * copied into dictionaries; the offset and target buffers are used as they are.
+     */
+    static CompactAdjacency fromBase(int[] studentIdArray, int[] courseIdArray,
+                                     IntBuffer studentOffsets, IntBuffer studentTargets,
+                                     IntBuffer courseOffsets, IntBuffer courseTargets) {
+        CompactAdjacency adjacency = new CompactAdjacency();
+        for (int id : studentIdArray) {
+            adjacency.addStudent(id);
+        }
+        for (int id : courseIdArray) {
+            adjacency.addCourse(id);
+        }
+        if (adjacency.studentCount() != studentIdArray.length || adjacency.courseCount() != courseIdArray.length) {
+            throw new IllegalArgumentException("Duplicate IDs in adjacency dictionaries");
+        }
+        adjacency.byStudent.setBase(studentIdArray.length, studentOffsets, studentTargets);
+        adjacency.byCourse.setBase(courseIdArray.length, courseOffsets, courseTargets);
+        adjacency.edgeCount = studentTargets.limit();
+        return adjacency;
+    }
+
+    /**
+     * Base offsets of the student rows (studentCount + 1 entries); only meaningful right after compact().
+     */
+    IntBuffer studentOffsets() { return byStudent.offsets.duplicate(); }
+    IntBuffer studentTargets() { return byStudent.targets.duplicate(); }
+    IntBuffer courseOffsets() { return byCourse.offsets.duplicate(); }
+    IntBuffer courseTargets() { return byCourse.targets.duplicate(); }
+
+    void clear() {
+        studentIds.clear();
+        courseIds.clear();
+        byStudent.clear();
+        byCourse.clear();
+        removedBaseEdges.clear();
+        edgeCount = 0;
+    }
+
+    int getEdgeCount() {
+        return edgeCount;
+    }
+
+    // === Dense index access ===
+
+    int studentCount() { return studentIds.size(); }
+    int courseCount() { return courseIds.size(); }
+    int studentIndexOf(int studentId) { return studentIds.indexOf(studentId); }
+    int courseIndexOf(int courseId) { return courseIds.indexOf(courseId); }
+    int studentIdAt(int studentIndex) { return studentIds.idAt(studentIndex); }
+    int courseIdAt(int courseIndex) { return courseIds.idAt(courseIndex); }
+    int studentDegree(int studentIndex) { return byStudent.degree[studentIndex]; }
+    int courseDegree(int courseIndex) { return byCourse.degree[courseIndex]; }
+
+    int maxCourseDegree() {
+        int max = 0;
+        for (int c = 0; c < courseIds.size(); c++) {
+            max = Math.max(max, byCourse.degree[c]);
+        }
+        return max;
+    }
+
+    /**
+     * Writes the dense course indexes of a student into out (sized by studentDegree) and returns the count.
+     */
+    int copyCourses(int studentIndex, int[] out) {
+        return byStudent.copyRow(studentIndex, out, removedFromStudentRow);
+    }
+
+    /**
+     * Writes the dense student indexes of a course into out (sized by courseDegree) and returns the count.
+     */
+    int copyStudents(int courseIndex, int[] out) {
+        return byCourse.copyRow(courseIndex, out, removedFromCourseRow);
+    }
+
+    // === Boxed views for callers that work with sets of IDs ===
+
+    Set<Integer> coursesOf(int studentId) {
+        int s = studentIds.indexOf(studentId);
+        return s < 0 ? Collections.emptySet() : new RowView(true, s);
+    }
+
+    Set<Integer> studentsOf(int courseId) {
+        int c = courseIds.indexOf(courseId);
+        return c < 0 ? Collections.emptySet() : new RowView(false, c);
+    }
+
+    private static long pack(int studentIndex, int courseIndex) {
+        return ((long) studentIndex << 32) | courseIndex;
+    }
+
+    private interface RemovedEdges {
+        boolean test(int row, int target);
+    }
+
+    /**
+     * Read-only live view of one row, exposed as IDs.
+     */
+    private class RowView extends AbstractSet<Integer> {
+        private final boolean studentRow;
+        private final int row;
+
+        RowView(boolean studentRow, int row) {
+            this.studentRow = studentRow;
+            this.row = row;
+        }
+
+        @Override
+        public int size() {
+            return studentRow ? studentDegree(row) : courseDegree(row);
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Integer)) return false;
+            int id = (Integer) o;
+            return studentRow ? contains(studentIdAt(row), id) : contains(id, courseIdAt(row));
+        }
+
+        private boolean contains(int studentId, int courseId) {
+            return CompactAdjacency.this.contains(studentId, courseId);
+        }
+
+        @Override
+        public Iterator<Integer> iterator() {
+            // Snapshot the row so that iteration is unaffected by later edits
+            int[] indexes = new int[size()];
+            int count = studentRow ? copyCourses(row, indexes) : copyStudents(row, indexes);
+            return new Iterator<Integer>() {
+                private int position;
+
+                @Override
+                public boolean hasNext() {
+                    return position < count;
+                }
+
+                @Override
+                public Integer next() {
+                    if (position >= count) throw new NoSuchElementException();
+                    int index = indexes[position++];
+                    return studentRow ? courseIdAt(index) : studentIdAt(index);
+                }
+            };
+        }
+    }
+
+    /**
+     * One direction of the adjacency: rows are the source entity, targets the other side.
+     */
+    private static final class Direction {
+        private int baseRows;
+        private IntBuffer offsets = IntBuffer.allocate(1);
+        private IntBuffer targets = IntBuffer.allocate(0);
+
+        private int[] degree = new int[16];
+        private int[] deltaHead = filled(16);
+        private int[] deltaTarget = new int[16];
+        private int[] deltaNext = new int[16];
+        private int deltaSize;
+
+        void ensureRows(int rows) {
+            if (rows > degree.length) {
+                int capacity = Math.max(rows, degree.length * 2);
+                degree = Arrays.copyOf(degree, capacity);
+                int oldLength = deltaHead.length;
+                deltaHead = Arrays.copyOf(deltaHead, capacity);
+                Arrays.fill(deltaHead, oldLength, capacity, -1);
+            }
+        }
+
+        boolean baseContains(int row, int target) {
+            if (row >= baseRows) return false;
+            int low = offsets.get(row);
+            int high = offsets.get(row + 1) - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int value = targets.get(mid);
+                if (value < target) {
+                    low = mid + 1;
+                } else if (value > target) {
+                    high = mid - 1;
+                } else {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        boolean deltaContains(int row, int target) {
+            for (int e = deltaHead[row]; e != -1; e = deltaNext[e]) {
+                if (deltaTarget[e] == target) return true;
+            }
+            return false;
+        }
+
+        void append(int row, int target) {
+            if (deltaSize == deltaTarget.length) {
+                deltaTarget = Arrays.copyOf(deltaTarget, deltaSize * 2);
+                deltaNext = Arrays.copyOf(deltaNext, deltaSize * 2);
+            }
+            deltaTarget[deltaSize] = target;
+            deltaNext[deltaSize] = deltaHead[row];
+            deltaHead[row] = deltaSize++;
+            degree[row]++;
+        }
+
+        boolean removeDelta(int row, int target) {
+            for (int e = deltaHead[row]; e != -1; e = deltaNext[e]) {
+                if (deltaTarget[e] == target) {
+                    deltaTarget[e] = -1; // dead entry, dropped at the next compaction
+                    degree[row]--;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        int copyRow(int row, int[] out, RemovedEdges removed) {
+            return copyRowInto(row, out, 0, removed);
+        }
+
+        void rebuild(int rows, RemovedEdges removed) {
+            int[] newOffsets = new int[rows + 1];
+            for (int r = 0; r < rows; r++) {
+                newOffsets[r + 1] = newOffsets[r] + degree[r];
+            }
+            int[] newTargets = new int[newOffsets[rows]];
+            for (int r = 0; r < rows; r++) {
+                int from = newOffsets[r];
+                int n = copyRowInto(r, newTargets, from, removed);
+                Arrays.sort(newTargets, from, from + n);
+            }
+
+            offsets = IntBuffer.wrap(newOffsets);
+            targets = IntBuffer.wrap(newTargets);
+            baseRows = rows;
+            Arrays.fill(deltaHead, -1);
+            deltaSize = 0;
+            if (deltaTarget.length > 1024) {
+                deltaTarget = new int[16];
+                deltaNext = new int[16];
+            }
+        }
+
+        void setBase(int rows, IntBuffer baseOffsets, IntBuffer baseTargets) {
+            ensureRows(rows);
+            for (int r = 0; r < rows; r++) {
+                degree[r] = baseOffsets.get(r + 1) - baseOffsets.get(r);
+            }
+            offsets = baseOffsets;
+            targets = baseTargets;
+            baseRows = rows;
+        }
+
+        private int copyRowInto(int row, int[] out, int from, RemovedEdges removed) {
+            int n = from;
+            if (row < baseRows) {
+                int end = offsets.get(row + 1);
+                for (int i = offsets.get(row); i < end; i++) {
+                    int target = targets.get(i);
+                    if (!removed.test(row, target)) {
+                        out[n++] = target;
+                    }
+                }
+            }
+            for (int e = deltaHead[row]; e != -1; e = deltaNext[e]) {
+                if (deltaTarget[e] >= 0) {
+                    out[n++] = deltaTarget[e];
+                }
+            }
+            return n - from;
+        }
+
+        void clear() {
+            baseRows = 0;
+            offsets = IntBuffer.allocate(1);
+            targets = IntBuffer.allocate(0);
+            Arrays.fill(degree, 0);
+            Arrays.fill(deltaHead, -1);
+            deltaSize = 0;
+        }
+
+        private static int[] filled(int length) {
+            int[] array = new int[length];
+            Arrays.fill(array, -1);
+            return array;
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.schoolmanagementsystem.algorithm.graph;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The student-course adjacency as one bitset per student.
+ * Course IDs are remapped to dense indexes so that every student's course set is a
+ * fixed-width run of longs; Jaccard similarity then reduces to popcounts over two runs.
+ * The reverse direction is kept as primitive posting lists (students per course), ordered by
+ * student position, so similarity queries can start from a student's courses.
+ *
+ * New students and enrollment changes update the affected row and posting lists in place. Rows
+ * have room for the courses known at build time rounded up to a whole word; an enrollment in a
+ * course beyond that is refused, and the caller rebuilds the index.
+ */
+class CourseBitsetIndex {
+    private final IdDictionary studentIndex = new IdDictionary();
+    private final IdDictionary courseIndex = new IdDictionary();
+    private final int wordsPerStudent;
+    private long[] bits;
+    private int[] cardinalities;
+    // Per course, student positions in increasing order
+    private int[][] postings;
+    private int[] postingSizes;
+
+    CourseBitsetIndex(CompactAdjacency adjacency, Set<Integer> studentKeys) {
+        // Dense course index over every course that has at least one enrollment
+        int[] denseCourse = new int[adjacency.courseCount()];
+        for (int c = 0; c < denseCourse.length; c++) {
+            denseCourse[c] = adjacency.courseDegree(c) > 0 ? courseIndex.add(adjacency.courseIdAt(c)) : -1;
+        }
+        int courseCount = courseIndex.size();
+
+        // Students keep the iteration order of the graph so result ordering is unchanged;
+        // students added later are appended
+        for (int studentId : studentKeys) {
+            studentIndex.add(studentId);
+        }
+        int studentCount = studentIndex.size();
+
+        this.wordsPerStudent = Math.max(1, (courseCount + 63) >>> 6);
+        this.bits = new long[rowsToWords(studentCount)];
+        this.cardinalities = new int[studentCount];
+        this.postings = new int[courseCount][];
+        this.postingSizes = new int[courseCount];
+
+        int[] rowBuffer = new int[16];
+        for (int i = 0; i < studentCount; i++) {
+            int row = adjacency.studentIndexOf(studentIndex.idAt(i));
+            if (row < 0) continue;
+            if (adjacency.studentDegree(row) > rowBuffer.length) {
+                rowBuffer = new int[adjacency.studentDegree(row)];
+            }
+            int count = adjacency.copyCourses(row, rowBuffer);
+            int base = i * wordsPerStudent;
+            for (int j = 0; j < count; j++) {
+                int c = denseCourse[rowBuffer[j]];
+                bits[base + (c >>> 6)] |= 1L << c;
+                postingSizes[c]++;
+            }
+            cardinalities[i] = count;
+        }
+
+        for (int c = 0; c < courseCount; c++) {
+            postings[c] = new int[Math.max(4, postingSizes[c])];
+            postingSizes[c] = 0;
+        }
+        for (int i = 0; i < studentCount; i++) {
+            int base = i * wordsPerStudent;
+            for (int w = 0; w < wordsPerStudent; w++) {
+                long word = bits[base + w];
+                while (word != 0) {
+                    int c = (w << 6) + Long.numberOfTrailingZeros(word);
+                    postings[c][postingSizes[c]++] = i;
+                    word &= word - 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds a row with no courses for the student, if it has none yet.
+     */
+    void addStudent(int studentId) {
+        int index = studentIndex.add(studentId);
+        if (index == cardinalities.length) {
+            int capacity = Math.max(16, index * 2);
+            cardinalities = Arrays.copyOf(cardinalities, capacity);
+            bits = Arrays.copyOf(bits, rowsToWords(capacity));
+        }
+    }
+
+    /**
+     * Records the enrollment in place. Returns false, leaving the index unchanged, when the
+     * student is unknown or the course does not fit in the rows; the index must then be rebuilt.
+     */
+    boolean addEnrollment(int studentId, int courseId) {
+        int s = studentIndex.indexOf(studentId);
+        if (s < 0) {
+            return false;
+        }
+        int c = courseIndex.indexOf(courseId);
+        if (c < 0) {
+            if (courseIndex.size() == wordsPerStudent << 6) {
+                return false;
+            }
+            c = courseIndex.add(courseId);
+            if (c == postings.length) {
+                int capacity = Math.min(wordsPerStudent << 6, Math.max(4, c * 2));
+                postings = Arrays.copyOf(postings, capacity);
+                postingSizes = Arrays.copyOf(postingSizes, capacity);
+            }
+            postings[c] = new int[4];
+        }
+        int slot = s * wordsPerStudent + (c >>> 6);
+        if ((bits[slot] & (1L << c)) != 0) {
+            return true;
+        }
+        bits[slot] |= 1L << c;
+        cardinalities[s]++;
+
+        int[] list = postings[c];
+        int size = postingSizes[c];
+        if (size == list.length) {
+            list = postings[c] = Arrays.copyOf(list, size * 2);
+        }
+        int at = -Arrays.binarySearch(list, 0, size, s) - 1;
+        System.arraycopy(list, at, list, at + 1, size - at);
+        list[at] = s;
+        postingSizes[c] = size + 1;
+        return true;
+    }
+
+    /**
+     * Clears the enrollment in place; a course left without students keeps its (empty) column.
+     */
+    void removeEnrollment(int studentId, int courseId) {
+        int s = studentIndex.indexOf(studentId);
+        int c = courseIndex.indexOf(courseId);
+        if (s < 0 || c < 0) {
+            return;
+        }
+        int slot = s * wordsPerStudent + (c >>> 6);
+        if ((bits[slot] & (1L << c)) == 0) {
+            return;
+        }
+        bits[slot] &= ~(1L << c);
+        cardinalities[s]--;
+
+        int[] list = postings[c];
+        int size = postingSizes[c];
+        int at = Arrays.binarySearch(list, 0, size, s);
+        System.arraycopy(list, at + 1, list, at, size - at - 1);
+        postingSizes[c] = size - 1;
+    }
+
+    private int rowsToWords(int rows) {
+        try {
+            return Math.multiplyExact(rows, wordsPerStudent);
+        } catch (ArithmeticException e) {
+            throw new IllegalStateException("Bitset index of " + rows + " students x " + wordsPerStudent
+                    + " words exceeds the maximum array size", e);
+        }
+    }
+
+    int size() {
+        return studentIndex.size();
+    }
+
+    int indexOf(int studentId) {
+        return studentIndex.indexOf(studentId);
+    }
+
+    int studentIdAt(int index) {
+        return studentIndex.idAt(index);
+    }
+
+    int courseCount() {
+        return courseIndex.size();
+    }
+
+    int courseIdAt(int courseIndex) {
+        return this.courseIndex.idAt(courseIndex);
+    }
+
+    /**
+     * Number of students enrolled in the course.
+     */
+    int postingSize(int courseIndex) {
+        return postingSizes[courseIndex];
+    }
+
+    /**
+     * Position of the i-th student, in position order, enrolled in the course.
+     */
+    int posting(int courseIndex, int i) {
+        return postings[courseIndex][i];
+    }
+
+    int wordsPerStudent() {
+        return wordsPerStudent;
+    }
+
+    long word(int index, int w) {
+        return bits[index * wordsPerStudent + w];
+    }
+
+    int cardinality(int index) {
+        return cardinalities[index];
+    }
+
+    int intersectionSize(int a, int b) {
+        int baseA = a * wordsPerStudent;
+        int baseB = b * wordsPerStudent;
+        int count = 0;
+        for (int w = 0; w < wordsPerStudent; w++) {
+            count += Long.bitCount(bits[baseA + w] & bits[baseB + w]);
+        }
+        return count;
+    }
+
+    double jaccard(int a, int b) {
+        int intersection = intersectionSize(a, b);
+        int union = cardinalities[a] + cardinalities[b] - intersection;
+        return union == 0 ? 0.0 : (double) intersection / union;
+    }
+
+    int maxCardinality() {
+        int max = 0;
+        for (int i = 0; i < size(); i++) {
+            max = Math.max(max, cardinalities[i]);
+        }
+        return max;
+    }
+
+    /**
+     * Writes the dense course indexes of a student into out and returns how many were written.
+     */
+    int courseIndexes(int index, int[] out) {
+        int base = index * wordsPerStudent;
+        int n = 0;
+        for (int w = 0; w < wordsPerStudent; w++) {
+            long word = bits[base + w];
+            while (word != 0) {
+                out[n++] = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return n;
+    }
+
+    Set<Integer> commonCourses(int a, int b) {
+        Set<Integer> common = new HashSet<>();
+        int baseA = a * wordsPerStudent;
+        int baseB = b * wordsPerStudent;
+        for (int w = 0; w < wordsPerStudent; w++) {
+            long word = bits[baseA + w] & bits[baseB + w];
+            while (word != 0) {
+                int bit = Long.numberOfTrailingZeros(word);
+                common.add(courseIndex.idAt((w << 6) + bit));
+                word &= word - 1;
+            }
+        }
+        return common;
+    }
+}
@@ -0,0 +1,311 @@
+package com.schoolmanagementsystem.algorithm.graph;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Binary snapshot of the enrollment structure of a StudentCourseGraph.
+ *
+ * Layout (little-endian, all sections 4-byte aligned):
+ * <pre>
+ *   header (64 bytes)  magic, version, student/course/edge counts, sync mark, body length, body CRC32
+ *   studentIds         int[studentCount]       dense student index to ID
+ *   courseIds          int[courseCount]        dense course index to ID
+ *   studentOffsets     int[studentCount + 1]   CSR rows by student
+ *   studentTargets     int[edgeCount]          sorted course indexes per row
+ *   courseOffsets      int[courseCount + 1]    CSR rows by course
+ *   courseTargets      int[edgeCount]          sorted student indexes per row
+ * </pre>
+ * A snapshot is read through a MappedByteBuffer: the CSR sections are used in place and only the
+ * ID dictionaries are copied to the heap. The sync mark records which database state the
+ * snapshot reflects, so that a loaded graph can be topped up with later changes.
+ *
+ * Each snapshot is written to its own generation file next to the configured path, and the
+ * configured path holds only the name of the current generation. A generation is never
+ * overwritten, since a mapped file cannot be replaced on Windows and other processes may have it
+ * mapped; older generations are deleted once the pointer has moved on, where the OS allows it.
+ *
+ * Student and Course objects are not part of the snapshot; callers add them to the loaded graph
+ * before querying it.
+ */
+public final class GraphSnapshot {
+    public static final int MAGIC = 0x53434753; // "SCGS"
+    public static final int VERSION = 1;
+
+    private static final int HEADER_BYTES = 64;
+    private static final int WRITE_BUFFER_BYTES = 1 << 20;
+    private static final int MAX_POINTER_BYTES = 1024;
+    private static final String GENERATION_SUFFIX = ".gen";
+
+    private final StudentCourseGraph graph;
+    private final SyncMark syncMark;
+
+    private GraphSnapshot(StudentCourseGraph graph, SyncMark syncMark) {
+        this.graph = graph;
+        this.syncMark = syncMark;
+    }
+
+    public StudentCourseGraph getGraph() {
+        return graph;
+    }
+
+    public SyncMark getSyncMark() {
+        return syncMark;
+    }
+
+    /**
+     * Compacts the graph and writes it to a new generation file, then points file at it. The
+     * pointer is replaced atomically, so readers see either the old snapshot or the new one.
+     */
+    public static void write(StudentCourseGraph graph, SyncMark mark, Path file) throws IOException {
+        CompactAdjacency adjacency = graph.getAdjacency();
+        adjacency.compact();
+
+        int studentCount = adjacency.studentCount();
+        int courseCount = adjacency.courseCount();
+        int edgeCount = adjacency.getEdgeCount();
+        long bodyBytes = 4L * (2L * studentCount + 2L * courseCount + 2 + 2L * edgeCount);
+
+        Path directory = file.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        String prefix = file.getFileName().toString() + ".";
+        Path generation = Files.createTempFile(directory, prefix, GENERATION_SUFFIX);
+        boolean published = false;
+        try {
+            CRC32 crc = new CRC32();
+            try (FileChannel channel = FileChannel.open(generation, StandardOpenOption.WRITE)) {
+                channel.position(HEADER_BYTES);
+                ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                BodyWriter body = new BodyWriter(channel, buffer, crc);
+
+                for (int s = 0; s < studentCount; s++) {
+                    body.putInt(adjacency.studentIdAt(s));
+                }
+                for (int c = 0; c < courseCount; c++) {
+                    body.putInt(adjacency.courseIdAt(c));
+                }
+                body.putInts(adjacency.studentOffsets());
+                body.putInts(adjacency.studentTargets());
+                body.putInts(adjacency.courseOffsets());
+                body.putInts(adjacency.courseTargets());
+                body.flush();
+
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(MAGIC)
+                        .putInt(VERSION)
+                        .putInt(studentCount)
+                        .putInt(courseCount)
+                        .putInt(edgeCount)
+                        .putInt(mark.getHighWaterMark())
+                        .putInt(mark.getEnrollmentCount())
+                        .putInt(0)
+                        .putLong(mark.getPairChecksum())
+                        .putLong(bodyBytes)
+                        .putLong(crc.getValue())
+                        .putLong(0L);
+                header.flip();
+                channel.position(0);
+                while (header.hasRemaining()) {
+                    channel.write(header);
+                }
+                channel.force(true);
+            }
+
+            // The pointer is never mapped, so it can be replaced even while a generation is in use
+            Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try {
+                Files.write(temp, generation.getFileName().toString().getBytes(StandardCharsets.UTF_8));
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                published = true;
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } finally {
+            if (!published) {
+                Files.deleteIfExists(generation);
+            }
+        }
+        deleteOldGenerations(directory, prefix, generation);
+    }
+
+    /**
+     * Best effort: a generation still mapped here or by another process on Windows cannot be
+     * deleted yet, and is retried after the next write.
+     */
+    private static void deleteOldGenerations(Path directory, String prefix, Path current) {
+        try (DirectoryStream<Path> generations = Files.newDirectoryStream(directory, prefix + "*" + GENERATION_SUFFIX)) {
+            for (Path old : generations) {
+                if (old.getFileName().equals(current.getFileName())) continue;
+                try {
+                    Files.deleteIfExists(old);
+                } catch (IOException e) {
+                    // In use; left for a later write
+                }
+            }
+        } catch (IOException e) {
+            // Old generations only cost disk space
+        }
+    }
+
+    /**
+     * The generation file the pointer file names, which must sit next to it.
+     */
+    private static Path currentGeneration(Path file) throws IOException {
+        if (Files.size(file) > MAX_POINTER_BYTES) {
+            throw new IOException("Not a graph snapshot pointer: " + file);
+        }
+        String name = new String(Files.readAllBytes(file), StandardCharsets.UTF_8).trim();
+        String prefix = file.getFileName().toString() + ".";
+        if (!name.startsWith(prefix) || !name.endsWith(GENERATION_SUFFIX) || name.indexOf('/') >= 0
+                || name.indexOf('\\') >= 0) {
+            throw new IOException("Not a graph snapshot pointer: " + file);
+        }
+        return file.resolveSibling(name);
+    }
+
+    /**
+     * Maps the current generation of a snapshot and builds a graph over it, verifying magic,
+     * version and checksum.
+     */
+    public static GraphSnapshot read(Path pointer) throws IOException {
+        Path file = currentGeneration(pointer);
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IOException("Snapshot too short: " + file);
+            }
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        mapped.order(ByteOrder.LITTLE_ENDIAN);
+
+        if (mapped.getInt(0) != MAGIC) {
+            throw new IOException("Not a graph snapshot: " + file);
+        }
+        int version = mapped.getInt(4);
+        if (version != VERSION) {
+            throw new IOException("Unsupported snapshot version " + version + ": " + file);
+        }
+        int studentCount = mapped.getInt(8);
+        int courseCount = mapped.getInt(12);
+        int edgeCount = mapped.getInt(16);
+        SyncMark mark = new SyncMark(mapped.getInt(20), mapped.getInt(24), mapped.getLong(32));
+        long bodyBytes = mapped.getLong(40);
+        long expectedCrc = mapped.getLong(48);
+
+        long expectedBodyBytes = 4L * (2L * studentCount + 2L * courseCount + 2 + 2L * edgeCount);
+        if (studentCount < 0 || courseCount < 0 || edgeCount < 0 || bodyBytes > Integer.MAX_VALUE - HEADER_BYTES
+                || bodyBytes != expectedBodyBytes || mapped.capacity() != HEADER_BYTES + bodyBytes) {
+            throw new IOException("Corrupt snapshot header: " + file);
+        }
+
+        ByteBuffer body = slice(mapped, HEADER_BYTES, (int) bodyBytes);
+        CRC32 crc = new CRC32();
+        crc.update(body.duplicate());
+        if (crc.getValue() != expectedCrc) {
+            throw new IOException("Snapshot checksum mismatch: " + file);
+        }
+
+        int position = HEADER_BYTES;
+        int[] studentIds = new int[studentCount];
+        ints(mapped, position, studentCount).get(studentIds);
+        position += 4 * studentCount;
+        int[] courseIds = new int[courseCount];
+        ints(mapped, position, courseCount).get(courseIds);
+        position += 4 * courseCount;
+        IntBuffer studentOffsets = ints(mapped, position, studentCount + 1);
+        position += 4 * (studentCount + 1);
+        IntBuffer studentTargets = ints(mapped, position, edgeCount);
+        position += 4 * edgeCount;
+        IntBuffer courseOffsets = ints(mapped, position, courseCount + 1);
+        position += 4 * (courseCount + 1);
+        IntBuffer courseTargets = ints(mapped, position, edgeCount);
+
+        if (studentOffsets.get(studentCount) != edgeCount || courseOffsets.get(courseCount) != edgeCount) {
+            throw new IOException("Corrupt snapshot offsets: " + file);
+        }
+
+        CompactAdjacency adjacency = CompactAdjacency.fromBase(studentIds, courseIds,
+                studentOffsets, studentTargets, courseOffsets, courseTargets);
+        return new GraphSnapshot(new StudentCourseGraph(adjacency), mark);
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int offset, int length) {
+        ByteBuffer view = buffer.duplicate();
+        view.position(offset).limit(offset + length);
+        return view.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static IntBuffer ints(ByteBuffer buffer, int offset, int count) {
+        return slice(buffer, offset, 4 * count).asIntBuffer();
+    }
+
+    /**
+     * Streams ints to the channel through a fixed buffer, feeding every byte to the CRC.
+     */
+    private static final class BodyWriter {
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private final CRC32 crc;
+
+        BodyWriter(FileChannel channel, ByteBuffer buffer, CRC32 crc) {
+            this.channel = channel;
+            this.buffer = buffer;
+            this.crc = crc;
+        }
+
+        void putInt(int value) throws IOException {
+            if (buffer.remaining() < 4) {
+                flush();
+            }
+            buffer.putInt(value);
+        }
+
+        void putInts(IntBuffer values) throws IOException {
+            while (values.hasRemaining()) {
+                putInt(values.get());
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            crc.update(buffer.duplicate());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Database state a snapshot reflects: every enrollment with an ID up to the high-water mark,
+     * and the row count and pair checksum of the table at that point.
+     */
+    public static class SyncMark {
+        private final int highWaterMark;
+        private final int enrollmentCount;
+        private final long pairChecksum;
+
+        public SyncMark(int highWaterMark, int enrollmentCount, long pairChecksum) {
+            this.highWaterMark = highWaterMark;
+            this.enrollmentCount = enrollmentCount;
+            this.pairChecksum = pairChecksum;
+        }
+
+        public int getHighWaterMark() { return highWaterMark; }
+        public int getEnrollmentCount() { return enrollmentCount; }
+        public long getPairChecksum() { return pairChecksum; }
+    }
+}
@@ -0,0 +1,86 @@
+package com.schoolmanagementsystem.algorithm.graph;
+
+import java.util.Arrays;
+
+/**
+ * Assigns dense indexes 0..size-1 to entity IDs in insertion order, backed by an
+ * open-addressing int-to-int table so lookups do not box.
+ */
+class IdDictionary {
+    private static final int NO_INDEX = -1;
+
+    private int[] ids = new int[16];
+    private int[] keys;
+    private int[] values;
+    private int size;
+
+    IdDictionary() {
+        allocateTable(32);
+    }
+
+    int size() {
+        return size;
+    }
+
+    int idAt(int index) {
+        return ids[index];
+    }
+
+    int indexOf(int id) {
+        int mask = keys.length - 1;
+        int slot = mix(id) & mask;
+        while (values[slot] != NO_INDEX) {
+            if (keys[slot] == id) return values[slot];
+            slot = (slot + 1) & mask;
+        }
+        return NO_INDEX;
+    }
+
+    /**
+     * Index of the ID, registering it with the next free index if it is new.
+     */
+    int add(int id) {
+        int existing = indexOf(id);
+        if (existing != NO_INDEX) {
+            return existing;
+        }
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        if ((size + 1) * 2 > keys.length) {
+            allocateTable(keys.length * 2);
+            for (int i = 0; i < size; i++) {
+                insert(ids[i], i);
+            }
+        }
+        ids[size] = id;
+        insert(id, size);
+        return size++;
+    }
+
+    void clear() {
+        size = 0;
+        Arrays.fill(values, NO_INDEX);
+    }
+
+    private void insert(int id, int index) {
+        int mask = keys.length - 1;
+        int slot = mix(id) & mask;
+        while (values[slot] != NO_INDEX) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = id;
+        values[slot] = index;
+    }
+
+    private void allocateTable(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, NO_INDEX);
+    }
+
+    private static int mix(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
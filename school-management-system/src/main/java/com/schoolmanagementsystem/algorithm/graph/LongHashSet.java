@@ -0,0 +1,75 @@
+package com.schoolmanagementsystem.algorithm.graph;
+
+import java.util.Arrays;
+
+/**
+ * Minimal open-addressing set of non-negative longs, used for packed ID pairs without boxing.
+ */
+class LongHashSet {
+    private static final long EMPTY = -1L;
+    private long[] table;
+    private int size;
+
+    LongHashSet(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(16, expected * 2 - 1)) << 1;
+        table = new long[capacity];
+        Arrays.fill(table, EMPTY);
+    }
+
+    boolean add(long key) {
+        if ((size + 1) * 2 > table.length) {
+            resize();
+        }
+        int mask = table.length - 1;
+        int slot = mix(key) & mask;
+        while (table[slot] != EMPTY) {
+            if (table[slot] == key) return false;
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = key;
+        size++;
+        return true;
+    }
+
+    boolean contains(long key) {
+        if (size == 0) return false;
+        int mask = table.length - 1;
+        int slot = mix(key) & mask;
+        while (table[slot] != EMPTY) {
+            if (table[slot] == key) return true;
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        if (size > 0) {
+            Arrays.fill(table, EMPTY);
+            size = 0;
+        }
+    }
+
+    private void resize() {
+        long[] old = table;
+        table = new long[old.length << 1];
+        Arrays.fill(table, EMPTY);
+        int mask = table.length - 1;
+        for (long key : old) {
+            if (key == EMPTY) continue;
+            int slot = mix(key) & mask;
+            while (table[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = key;
+        }
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
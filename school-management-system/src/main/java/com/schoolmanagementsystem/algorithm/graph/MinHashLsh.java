@@ -0,0 +1,154 @@
+package com.schoolmanagementsystem.algorithm.graph;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * MinHash signatures with LSH banding for generating candidate pairs of similar students.
+ *
+ * Signatures have bands * rows MinHash values. Two students become candidates when all rows of
+ * at least one band agree, which happens with probability 1 - (1 - J^rows)^bands for Jaccard
+ * similarity J. The curve is steepest around (1/bands)^(1/rows): more bands raise recall,
+ * more rows per band raise precision. Candidates still have to be verified with exact Jaccard.
+ */
+public class MinHashLsh {
+    private static final long MERSENNE_PRIME = (1L << 31) - 1;
+    private static final int DEFAULT_SIGNATURE_SIZE = 128;
+    private static final long DEFAULT_SEED = 0x5EEDL;
+
+    private final int bands;
+    private final int rows;
+    private final long[] hashA;
+    private final long[] hashB;
+
+    public MinHashLsh(int bands, int rows) {
+        this(bands, rows, DEFAULT_SEED);
+    }
+
+    public MinHashLsh(int bands, int rows, long seed) {
+        if (bands <= 0 || rows <= 0) {
+            throw new IllegalArgumentException("Bands and rows must be positive");
+        }
+        this.bands = bands;
+        this.rows = rows;
+
+        Random random = new Random(seed);
+        int signatureSize = bands * rows;
+        this.hashA = new long[signatureSize];
+        this.hashB = new long[signatureSize];
+        for (int i = 0; i < signatureSize; i++) {
+            hashA[i] = 1 + (long) random.nextInt((int) MERSENNE_PRIME - 1);
+            hashB[i] = random.nextInt((int) MERSENNE_PRIME);
+        }
+    }
+
+    /**
+     * Picks the most selective banding of a 128-value signature whose S-curve midpoint still sits
+     * comfortably below the threshold, so that pairs at the threshold are found with high recall.
+     */
+    public static MinHashLsh forThreshold(double threshold) {
+        if (threshold <= 0.0 || threshold > 1.0) {
+            throw new IllegalArgumentException("Threshold must be in (0, 1]: " + threshold);
+        }
+        int bestRows = 1;
+        for (int r = 1; r <= DEFAULT_SIGNATURE_SIZE; r++) {
+            int b = DEFAULT_SIGNATURE_SIZE / r;
+            double midpoint = Math.pow(1.0 / b, 1.0 / r);
+            if (midpoint <= threshold * 0.8) {
+                bestRows = r;
+            }
+        }
+        return new MinHashLsh(DEFAULT_SIGNATURE_SIZE / bestRows, bestRows);
+    }
+
+    public int getBands() { return bands; }
+    public int getRows() { return rows; }
+
+    /**
+     * Probability that a pair with the given Jaccard similarity becomes a candidate.
+     */
+    public double candidateProbability(double similarity) {
+        return 1.0 - Math.pow(1.0 - Math.pow(similarity, rows), bands);
+    }
+
+    interface PairConsumer {
+        void accept(int a, int b);
+    }
+
+    /**
+     * Reports every distinct candidate pair (a < b, as index positions) exactly once.
+     */
+    void forEachCandidatePair(CourseBitsetIndex index, PairConsumer consumer) {
+        int n = index.size();
+
+        // Flatten course lists once; signatures are then computed band by band so that only
+        // one band of hash values is ever held in memory.
+        int[] active = new int[n];
+        int[] offsets = new int[n + 1];
+        int activeCount = 0;
+        int total = 0;
+        for (int s = 0; s < n; s++) {
+            if (index.cardinality(s) == 0) continue;
+            active[activeCount] = s;
+            total += index.cardinality(s);
+            offsets[++activeCount] = total;
+        }
+        int[] courseList = new int[total];
+        int[] courseBuffer = new int[Math.max(1, index.maxCardinality())];
+        for (int i = 0; i < activeCount; i++) {
+            int count = index.courseIndexes(active[i], courseBuffer);
+            System.arraycopy(courseBuffer, 0, courseList, offsets[i], count);
+        }
+
+        // Each bucket entry packs the band hash into the high bits and the student position into the low bits,
+        // so sorting one long[] per band groups identical bands without any boxing.
+        int indexBits = Math.max(1, 32 - Integer.numberOfLeadingZeros(Math.max(1, n - 1)));
+        long indexMask = (1L << indexBits) - 1;
+        long[] entries = new long[activeCount];
+        LongHashSet seenPairs = new LongHashSet(activeCount * 4);
+
+        for (int band = 0; band < bands; band++) {
+            for (int i = 0; i < activeCount; i++) {
+                long hash = bandHash(band, courseList, offsets[i], offsets[i + 1]);
+                entries[i] = (hash << indexBits) | active[i];
+            }
+            Arrays.sort(entries, 0, activeCount);
+
+            int runStart = 0;
+            for (int i = 1; i <= activeCount; i++) {
+                if (i == activeCount || (entries[i] >>> indexBits) != (entries[runStart] >>> indexBits)) {
+                    for (int x = runStart; x < i; x++) {
+                        int a = (int) (entries[x] & indexMask);
+                        for (int y = x + 1; y < i; y++) {
+                            int b = (int) (entries[y] & indexMask);
+                            // Entries within a run are ordered by position, so a < b
+                            if (seenPairs.add(((long) a << 32) | b)) {
+                                consumer.accept(a, b);
+                            }
+                        }
+                    }
+                    runStart = i;
+                }
+            }
+        }
+    }
+
+    /**
+     * MinHash values of one band for one student, folded into a single 64-bit bucket key.
+     */
+    private long bandHash(int band, int[] courseList, int from, int to) {
+        long hash = 0x9E3779B97F4A7C15L;
+        for (int r = 0; r < rows; r++) {
+            int h = band * rows + r;
+            long min = Long.MAX_VALUE;
+            for (int i = from; i < to; i++) {
+                long value = (hashA[h] * courseList[i] + hashB[h]) % MERSENNE_PRIME;
+                if (value < min) min = value;
+            }
+            hash ^= min;
+            hash *= 0xBF58476D1CE4E5B9L;
+            hash ^= hash >>> 31;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,152 @@
+package com.schoolmanagementsystem.algorithm.graph;
+
+/**
+ * Ranks the candidate courses of one student under a RecommendationScorer.
+ *
+ * Similar students come from a SimilarityScanner, pruned by the scorer's Jaccard lower bound.
+ * Their courses are summed into a dense score array indexed by course, and the touched courses
+ * are pushed through a bounded TopKHeap, so ranking costs O(candidates log k) without boxing.
+ * A ranker reuses its buffers between calls and must not be shared between threads.
+ */
+class RecommendationRanker {
+    private final CourseBitsetIndex index;
+    private final SimilarityScanner scanner;
+    private final double[] scores;
+    private final int[] touched;
+    private int touchedCount;
+    private TopKHeap heap;
+
+    RecommendationRanker(SimilarityScanner scanner) {
+        this.index = scanner.getIndex();
+        this.scanner = scanner;
+        this.scores = new double[index.courseCount()];
+        this.touched = new int[index.courseCount()];
+    }
+
+    CourseBitsetIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Writes up to k recommendations for the student at target, best first, as dense course
+     * indexes with their scores, and returns how many were written.
+     */
+    int rank(Model model, int target, int k, int[] courseOut, double[] scoreOut, int offset) {
+        if (index.cardinality(target) == 0) {
+            return 0;
+        }
+        if (heap == null || heap.capacity() != k) {
+            heap = new TopKHeap(k);
+        }
+
+        double[] featureWeights = model.featureWeights;
+        double targetSize = featureWeights == null ? index.cardinality(target) : weightedSize(target, featureWeights);
+        int words = index.wordsPerStudent();
+
+        int similarCount = scanner.scan(target, model.candidateThreshold);
+        for (int i = 0; i < similarCount; i++) {
+            int other = scanner.resultStudent(i);
+            int overlap = scanner.resultOverlap(i);
+            if (overlap == 0) continue;
+
+            double similarity = featureWeights == null
+                    ? model.scorer.similarity(overlap, targetSize, index.cardinality(other))
+                    : model.scorer.similarity(weightedOverlap(target, other, featureWeights),
+                            targetSize, weightedSize(other, featureWeights));
+            if (!(similarity >= model.minSimilarity) || similarity <= 0.0) continue;
+
+            // Courses the other student takes and the target does not
+            for (int w = 0; w < words; w++) {
+                long word = index.word(other, w) & ~index.word(target, w);
+                while (word != 0) {
+                    int course = (w << 6) + Long.numberOfTrailingZeros(word);
+                    if (scores[course] == 0.0) {
+                        touched[touchedCount++] = course;
+                    }
+                    scores[course] += similarity;
+                    word &= word - 1;
+                }
+            }
+        }
+
+        for (int i = 0; i < touchedCount; i++) {
+            int course = touched[i];
+            double score = scores[course] * model.courseWeights[course];
+            scores[course] = 0.0;
+            if (score > 0.0) {
+                heap.offer(course, score);
+            }
+        }
+        touchedCount = 0;
+        return heap.drainDescending(courseOut, scoreOut, offset);
+    }
+
+    private double weightedSize(int student, double[] featureWeights) {
+        double size = 0.0;
+        for (int w = 0; w < index.wordsPerStudent(); w++) {
+            long word = index.word(student, w);
+            while (word != 0) {
+                size += featureWeights[(w << 6) + Long.numberOfTrailingZeros(word)];
+                word &= word - 1;
+            }
+        }
+        return size;
+    }
+
+    private double weightedOverlap(int a, int b, double[] featureWeights) {
+        double overlap = 0.0;
+        for (int w = 0; w < index.wordsPerStudent(); w++) {
+            long word = index.word(a, w) & index.word(b, w);
+            while (word != 0) {
+                overlap += featureWeights[(w << 6) + Long.numberOfTrailingZeros(word)];
+                word &= word - 1;
+            }
+        }
+        return overlap;
+    }
+
+    /**
+     * A scorer evaluated against one bitset index: per-course weights are computed once and
+     * shared by every ranker (and thread) working on that index.
+     */
+    static class Model {
+        private final CourseBitsetIndex index;
+        private final RecommendationScorer scorer;
+        private final double minSimilarity;
+        private final double candidateThreshold;
+        private final double[] featureWeights; // null when every course counts 1
+        private final double[] courseWeights;
+
+        /**
+         * @param enrolled students per dense course index of the bitset index
+         * @param capacity seats per dense course index, 0 or less when unknown
+         * @param excludeFull whether courses with no seats left are dropped whatever the scorer says
+         */
+        Model(CourseBitsetIndex index, RecommendationScorer scorer, double minSimilarity,
+              int[] enrolled, int[] capacity, boolean excludeFull) {
+            this.index = index;
+            this.scorer = scorer;
+            this.minSimilarity = minSimilarity;
+
+            // A tiny positive threshold still restricts candidates to students sharing a course
+            double bound = scorer.jaccardLowerBound(minSimilarity);
+            this.candidateThreshold = bound > 0.0 ? bound : Double.MIN_VALUE;
+
+            int courseCount = index.courseCount();
+            double[] features = new double[courseCount];
+            boolean uniform = true;
+            this.courseWeights = new double[courseCount];
+            for (int c = 0; c < courseCount; c++) {
+                features[c] = scorer.featureWeight(enrolled[c], index.size());
+                uniform &= features[c] == 1.0;
+                boolean full = capacity[c] > 0 && enrolled[c] >= capacity[c];
+                courseWeights[c] = excludeFull && full ? 0.0 : scorer.courseWeight(enrolled[c], capacity[c]);
+            }
+            this.featureWeights = uniform ? null : features;
+        }
+
+        boolean matches(CourseBitsetIndex index, RecommendationScorer scorer, double minSimilarity) {
+            return this.index == index && this.scorer == scorer && this.minSimilarity == minSimilarity;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.schoolmanagementsystem.algorithm.graph;
+
+/**
+ * Scoring model for course recommendations.
+ *
+ * A candidate course c for a student u scores
+ * {@code courseWeight(c) * sum of similarity(u, v)} over the similar students v taking c.
+ * Similarities are computed from course-set sizes, where each course may count with a feature
+ * weight (1 by default, which makes the sizes plain course counts).
+ * See {@link RecommendationScorers} for the built-in models.
+ */
+public interface RecommendationScorer {
+
+    /**
+     * Similarity of two students given the (weighted) size of their common courses and of
+     * each student's courses. Pairs without a common course are never scored.
+     */
+    double similarity(double common, double targetSize, double otherSize);
+
+    /**
+     * Weight of one course when measuring set sizes, given how many of the studentCount
+     * students take it.
+     */
+    default double featureWeight(int enrolled, int studentCount) {
+        return 1.0;
+    }
+
+    /**
+     * Multiplier for the summed similarity of a candidate course; 0 or less drops the course.
+     * A capacity of 0 or less means the capacity is unknown.
+     */
+    default double courseWeight(int enrolled, int capacity) {
+        return 1.0;
+    }
+
+    /**
+     * A Jaccard similarity that every pair with similarity at least minSimilarity is guaranteed
+     * to reach. It lets candidate generation prune by Jaccard; 0 disables pruning.
+     */
+    default double jaccardLowerBound(double minSimilarity) {
+        return 0.0;
+    }
+}
@@ -0,0 +1,110 @@
+package com.schoolmanagementsystem.algorithm.graph;
+
+/**
+ * Built-in recommendation scoring models.
+ */
+public final class RecommendationScorers {
+    private static final RecommendationScorer JACCARD = new Jaccard();
+    private static final RecommendationScorer COSINE = new Cosine();
+    private static final RecommendationScorer WEIGHTED_JACCARD = new WeightedJaccard();
+    private static final RecommendationScorer POPULARITY_DAMPED = new PopularityDamped();
+    private static final RecommendationScorer CAPACITY_AWARE = new CapacityAware();
+
+    private RecommendationScorers() {
+    }
+
+    /**
+     * Sum of Jaccard similarities |A ∩ B| / |A ∪ B| of the students taking a course; the default.
+     */
+    public static RecommendationScorer jaccard() {
+        return JACCARD;
+    }
+
+    /**
+     * Sum of cosine similarities |A ∩ B| / sqrt(|A| |B|), which is kinder to students with
+     * many more courses than the target.
+     */
+    public static RecommendationScorer cosine() {
+        return COSINE;
+    }
+
+    /**
+     * Jaccard similarity where each course counts with weight log(1 + N / enrolled), so that
+     * sharing a rare course says more than sharing a course everybody takes.
+     */
+    public static RecommendationScorer weightedJaccard() {
+        return WEIGHTED_JACCARD;
+    }
+
+    /**
+     * Jaccard scoring with each course's score divided by log2(2 + enrolled), so that already
+     * popular courses do not crowd out the rest.
+     */
+    public static RecommendationScorer popularityDamped() {
+        return POPULARITY_DAMPED;
+    }
+
+    /**
+     * Jaccard scoring scaled by the fraction of seats still free; full courses are dropped.
+     * Courses without a known capacity keep their score.
+     */
+    public static RecommendationScorer capacityAware() {
+        return CAPACITY_AWARE;
+    }
+
+    private static class Jaccard implements RecommendationScorer {
+        @Override
+        public double similarity(double common, double targetSize, double otherSize) {
+            return common / (targetSize + otherSize - common);
+        }
+
+        @Override
+        public double jaccardLowerBound(double minSimilarity) {
+            return minSimilarity;
+        }
+    }
+
+    private static class Cosine implements RecommendationScorer {
+        @Override
+        public double similarity(double common, double targetSize, double otherSize) {
+            return common / Math.sqrt(targetSize * otherSize);
+        }
+
+        @Override
+        public double jaccardLowerBound(double minSimilarity) {
+            // cos >= t needs |B| >= t^2 |A| (for |B| <= |A|), which bounds the Jaccard by t^2
+            return minSimilarity > 0.0 ? minSimilarity * minSimilarity : 0.0;
+        }
+    }
+
+    private static class WeightedJaccard extends Jaccard {
+        @Override
+        public double featureWeight(int enrolled, int studentCount) {
+            return Math.log1p((double) studentCount / Math.max(1, enrolled));
+        }
+
+        @Override
+        public double jaccardLowerBound(double minSimilarity) {
+            return 0.0;
+        }
+    }
+
+    private static class PopularityDamped extends Jaccard {
+        private static final double LOG_2 = Math.log(2.0);
+
+        @Override
+        public double courseWeight(int enrolled, int capacity) {
+            return LOG_2 / Math.log(2.0 + enrolled);
+        }
+    }
+
+    private static class CapacityAware extends Jaccard {
+        @Override
+        public double courseWeight(int enrolled, int capacity) {
+            if (capacity <= 0) {
+                return 1.0;
+            }
+            return Math.max(0, capacity - enrolled) / (double) capacity;
+        }
+    }
+}
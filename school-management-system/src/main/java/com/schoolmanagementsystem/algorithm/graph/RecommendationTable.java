@@ -0,0 +1,52 @@
+package com.schoolmanagementsystem.algorithm.graph;
+
+/**
+ * Compact result of a bulk recommendation pass: recommendations for every student stored
+ * back to back in primitive arrays, with per-student offsets (CSR layout). Rows are the indexes
+ * of an IdDictionary over the student IDs. Recommendations of a student are ordered by
+ * descending score.
+ */
+public class RecommendationTable {
+    private final IdDictionary students;
+    private final int[] offsets;
+    private final int[] courseIds;
+    private final double[] scores;
+
+    RecommendationTable(IdDictionary students, int[] offsets, int[] courseIds, double[] scores) {
+        this.students = students;
+        this.offsets = offsets;
+        this.courseIds = courseIds;
+        this.scores = scores;
+    }
+
+    public int getStudentCount() {
+        return students.size();
+    }
+
+    public int getTotalRecommendations() {
+        return courseIds.length;
+    }
+
+    public int getStudentId(int row) {
+        return students.idAt(row);
+    }
+
+    /**
+     * Row of the given student, or -1 if the student was not part of the pass.
+     */
+    public int indexOf(int studentId) {
+        return students.indexOf(studentId);
+    }
+
+    public int getRecommendationCount(int row) {
+        return offsets[row + 1] - offsets[row];
+    }
+
+    public int getCourseId(int row, int rank) {
+        return courseIds[offsets[row] + rank];
+    }
+
+    public double getScore(int row, int rank) {
+        return scores[offsets[row] + rank];
+    }
+}
@@ -0,0 +1,147 @@
+package com.schoolmanagementsystem.algorithm.graph;
+
+import java.util.Arrays;
+
+/**
+ * Finds the students similar to a target by walking the posting lists of the target's courses
+ * instead of comparing against every student. Overlaps are counted in a primitive accumulator
+ * that is reused across queries, so a scanner must not be shared between threads.
+ *
+ * With a positive threshold t two filters keep the walk small:
+ * <ul>
+ *   <li>size filter: a student with |B| outside [t|A|, |A|/t] cannot reach Jaccard t;</li>
+ *   <li>prefix filter: J >= t needs an overlap of at least ceil(t|A|), so every qualifying student
+ *       takes one of the |A| - ceil(t|A|) + 1 rarest courses of A; only those lists are walked.</li>
+ * </ul>
+ */
+class SimilarityScanner {
+    // Guards the integer bounds against rounding, e.g. 0.3 * 10 = 3.0000000000000004
+    private static final double EPSILON = 1e-9;
+
+    private final CourseBitsetIndex index;
+    private final int[] overlap;
+    private final int[] touched;
+    private final int[] courseBuffer;
+    private final int[] resultStudents;
+    private final int[] resultOverlaps;
+    private final double[] resultSimilarities;
+    private int resultCount;
+
+    SimilarityScanner(CourseBitsetIndex index) {
+        this.index = index;
+        this.overlap = new int[index.size()];
+        this.touched = new int[index.size()];
+        this.courseBuffer = new int[Math.max(1, index.maxCardinality())];
+        this.resultStudents = new int[index.size()];
+        this.resultOverlaps = new int[index.size()];
+        this.resultSimilarities = new double[index.size()];
+    }
+
+    CourseBitsetIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Collects every other student whose Jaccard similarity to target is at least threshold,
+     * in index order. Returns the number of results.
+     */
+    int scan(int target, double threshold) {
+        resultCount = 0;
+        int cardinality = index.cardinality(target);
+        if (cardinality == 0) {
+            return 0;
+        }
+        if (threshold <= 0.0) {
+            // Every student qualifies, including those with nothing in common
+            scanAll(target, threshold);
+            return resultCount;
+        }
+
+        int minOverlap = Math.max(1, (int) Math.ceil(threshold * cardinality - EPSILON));
+        int minSize = minOverlap;
+        int maxSize = (int) Math.min(Integer.MAX_VALUE, Math.floor(cardinality / threshold + EPSILON));
+        int prefixLength = cardinality - minOverlap + 1;
+        boolean exactOverlap = prefixLength == cardinality;
+
+        int courseCount = index.courseIndexes(target, courseBuffer);
+        sortByPostingLength(courseBuffer, courseCount);
+
+        int touchedCount = 0;
+        for (int i = 0; i < prefixLength; i++) {
+            int course = courseBuffer[i];
+            int postingSize = index.postingSize(course);
+            for (int j = 0; j < postingSize; j++) {
+                int other = index.posting(course, j);
+                if (other == target) continue;
+                int size = index.cardinality(other);
+                if (size < minSize || size > maxSize) continue;
+                if (overlap[other]++ == 0) {
+                    touched[touchedCount++] = other;
+                }
+            }
+        }
+
+        Arrays.sort(touched, 0, touchedCount);
+        for (int i = 0; i < touchedCount; i++) {
+            int other = touched[i];
+            // Counts are complete only when every course was walked; otherwise verify on the bitsets
+            int intersection = exactOverlap ? overlap[other] : index.intersectionSize(target, other);
+            overlap[other] = 0;
+
+            int union = cardinality + index.cardinality(other) - intersection;
+            double similarity = (double) intersection / union;
+            if (similarity >= threshold) {
+                resultStudents[resultCount] = other;
+                resultOverlaps[resultCount] = intersection;
+                resultSimilarities[resultCount] = similarity;
+                resultCount++;
+            }
+        }
+        return resultCount;
+    }
+
+    int resultStudent(int i) {
+        return resultStudents[i];
+    }
+
+    /**
+     * Number of courses the i-th result shares with the target.
+     */
+    int resultOverlap(int i) {
+        return resultOverlaps[i];
+    }
+
+    double resultSimilarity(int i) {
+        return resultSimilarities[i];
+    }
+
+    private void scanAll(int target, double threshold) {
+        for (int other = 0; other < index.size(); other++) {
+            if (other == target || index.cardinality(other) == 0) continue;
+            int intersection = index.intersectionSize(target, other);
+            double similarity = (double) intersection / (index.cardinality(target) + index.cardinality(other) - intersection);
+            if (similarity >= threshold) {
+                resultStudents[resultCount] = other;
+                resultOverlaps[resultCount] = intersection;
+                resultSimilarities[resultCount] = similarity;
+                resultCount++;
+            }
+        }
+    }
+
+    /**
+     * Insertion sort of the target's courses, rarest first; a student has only a handful of courses.
+     */
+    private void sortByPostingLength(int[] courses, int count) {
+        for (int i = 1; i < count; i++) {
+            int course = courses[i];
+            int length = index.postingSize(course);
+            int j = i - 1;
+            while (j >= 0 && index.postingSize(courses[j]) > length) {
+                courses[j + 1] = courses[j];
+                j--;
+            }
+            courses[j + 1] = course;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.schoolmanagementsystem.algorithm.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Union-find over students, where two students are in the same community when they are
+ * connected through shared courses. Parents, ranks and sizes live in primitive arrays indexed
+ * by a dense student slot from an IdDictionary, so lookups do not box; find uses path halving
+ * and unions are by rank.
+ *
+ * Every course remembers the first student seen in it, so an enrollment costs one union with
+ * that anchor and a roster is never walked twice. Members of a set are also chained in a
+ * circular list, which lets a community be listed in time proportional to its size.
+ * Removing an enrollment can split a community and is not supported; callers rebuild instead.
+ */
+class StudentCommunities {
+    // Student ID to slot; slots are dictionary indexes
+    private final IdDictionary slots = new IdDictionary();
+    // Course ID to dense course index, and per course the slot of the first student seen in it
+    private final IdDictionary courses = new IdDictionary();
+    private int[] courseAnchors = new int[16];
+
+    private int[] parent = new int[16];
+    private byte[] rank = new byte[16];
+    private int[] size = new int[16];
+    private int[] next = new int[16];
+    private int count;
+    private int communityCount; // sets with more than one student
+
+    static StudentCommunities build(Iterable<Integer> studentIds, CompactAdjacency adjacency) {
+        StudentCommunities communities = new StudentCommunities();
+        for (int studentId : studentIds) {
+            communities.addStudent(studentId);
+        }
+        int[] roster = new int[adjacency.maxCourseDegree()];
+        for (int c = 0; c < adjacency.courseCount(); c++) {
+            int courseId = adjacency.courseIdAt(c);
+            int count = adjacency.copyStudents(c, roster);
+            for (int i = 0; i < count; i++) {
+                communities.addEnrollment(adjacency.studentIdAt(roster[i]), courseId);
+            }
+        }
+        return communities;
+    }
+
+    int addStudent(int studentId) {
+        int slot = slots.add(studentId);
+        if (slot < count) {
+            return slot;
+        }
+        if (count == parent.length) {
+            int capacity = count * 2;
+            parent = Arrays.copyOf(parent, capacity);
+            rank = Arrays.copyOf(rank, capacity);
+            size = Arrays.copyOf(size, capacity);
+            next = Arrays.copyOf(next, capacity);
+        }
+        count++;
+        parent[slot] = slot;
+        size[slot] = 1;
+        next[slot] = slot;
+        return slot;
+    }
+
+    void addEnrollment(int studentId, int courseId) {
+        int slot = addStudent(studentId);
+        int knownCourses = courses.size();
+        int course = courses.add(courseId);
+        if (course < knownCourses) {
+            union(slot, courseAnchors[course]);
+            return;
+        }
+        if (course == courseAnchors.length) {
+            courseAnchors = Arrays.copyOf(courseAnchors, course * 2);
+        }
+        courseAnchors[course] = slot;
+    }
+
+    private int find(int slot) {
+        while (parent[slot] != slot) {
+            parent[slot] = parent[parent[slot]];
+            slot = parent[slot];
+        }
+        return slot;
+    }
+
+    private void union(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+        if (rootA == rootB) {
+            return;
+        }
+
+        if (size[rootA] > 1 && size[rootB] > 1) {
+            communityCount--;
+        } else if (size[rootA] == 1 && size[rootB] == 1) {
+            communityCount++;
+        }
+
+        if (rank[rootA] < rank[rootB]) {
+            int tmp = rootA;
+            rootA = rootB;
+            rootB = tmp;
+        }
+        parent[rootB] = rootA;
+        size[rootA] += size[rootB];
+        if (rank[rootA] == rank[rootB]) {
+            rank[rootA]++;
+        }
+
+        // Splice the two circular member lists into one
+        int tmp = next[rootA];
+        next[rootA] = next[rootB];
+        next[rootB] = tmp;
+    }
+
+    int sizeOf(int studentId) {
+        int slot = slots.indexOf(studentId);
+        return slot < 0 ? 0 : size[find(slot)];
+    }
+
+    boolean connected(int studentA, int studentB) {
+        int a = slots.indexOf(studentA);
+        int b = slots.indexOf(studentB);
+        return a >= 0 && b >= 0 && find(a) == find(b);
+    }
+
+    Set<Integer> membersOf(int studentId) {
+        int slot = slots.indexOf(studentId);
+        if (slot < 0) {
+            return new HashSet<>();
+        }
+        Set<Integer> members = new HashSet<>(size[find(slot)] * 2);
+        int current = slot;
+        do {
+            members.add(slots.idAt(current));
+            current = next[current];
+        } while (current != slot);
+        return members;
+    }
+
+    int getCommunityCount() {
+        return communityCount;
+    }
+
+    /**
+     * All communities with at least minSize students, in order of their first member in studentOrder.
+     */
+    List<Set<Integer>> communities(Iterable<Integer> studentOrder, int minSize) {
+        List<Set<Integer>> result = new ArrayList<>();
+        boolean[] listed = new boolean[count];
+        for (int studentId : studentOrder) {
+            int slot = slots.indexOf(studentId);
+            if (slot < 0) continue;
+            int root = find(slot);
+            if (listed[root]) continue;
+            listed[root] = true;
+            if (size[root] >= minSize) {
+                result.add(membersOf(studentId));
+            }
+        }
+        return result;
+    }
+}
@@ -7,36 +7,69 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ForkJoinPool;
 
 /**
- * Bipartite graph implementation for analyzing student-course relationships
+ * Bipartite graph implementation for analyzing student-course relationships.
+ * Enrollments are kept in a compact CSR adjacency (see CompactAdjacency).
  */
 public class StudentCourseGraph {
     private static final Logger logger = LoggerFactory.getLogger(StudentCourseGraph.class);
 
-    private final Map<Integer, Set<Integer>> studentToCourses;
-    private final Map<Integer, Set<Integer>> courseToStudents;
+    // Similar students used by getCourseRecommendations(int, int)
+    private static final double DEFAULT_RECOMMENDATION_SIMILARITY = 0.3;
+
+    private final CompactAdjacency adjacency;
     private final Map<Integer, Student> students;
     private final Map<Integer, Course> courses;
 
+    // Built on demand for similarity queries, then updated in place as students and enrollments change
+    private CourseBitsetIndex bitsetIndex;
+    // Sized from the bitset index, so dropped whenever it changes
+    private SimilarityScanner similarityScanner;
+    private RecommendationRanker recommendationRanker;
+    // Seat-dependent course weights; any enrollment change also invalidates it
+    private RecommendationRanker.Model recommendationModel;
+    private boolean excludeFullCourses = true;
+
+    // Maintained incrementally as students and enrollments are added; null after a removal
+    private StudentCommunities communities;
+
     public StudentCourseGraph() {
-        this.studentToCourses = new HashMap<>();
-        this.courseToStudents = new HashMap<>();
+        this.adjacency = new CompactAdjacency();
+        this.students = new HashMap<>();
+        this.courses = new HashMap<>();
+        this.communities = new StudentCommunities();
+    }
+
+    /**
+     * Graph over an existing adjacency, as restored by GraphSnapshot. Communities are built on first use.
+     */
+    StudentCourseGraph(CompactAdjacency adjacency) {
+        this.adjacency = adjacency;
         this.students = new HashMap<>();
         this.courses = new HashMap<>();
+        this.communities = null;
     }
 
     public void addStudent(Student student) {
         if (student == null) return;
         students.put(student.getStudentId(), student);
-        studentToCourses.putIfAbsent(student.getStudentId(), new HashSet<>());
+        adjacency.addStudent(student.getStudentId());
+        if (bitsetIndex != null) {
+            bitsetIndex.addStudent(student.getStudentId());
+            dropIndexDerivatives();
+        }
+        if (communities != null) {
+            communities.addStudent(student.getStudentId());
+        }
     }
 
     public void addCourse(Course course) {
         if (course == null) return;
         courses.put(course.getCourseId(), course);
-        courseToStudents.putIfAbsent(course.getCourseId(), new HashSet<>());
+        adjacency.addCourse(course.getCourseId());
+        recommendationModel = null; // capacity may have changed
     }
 
     public void addEnrollment(Enrollment enrollment) {
@@ -54,28 +87,56 @@ public class StudentCourseGraph {
             return;
         }
 
-        studentToCourses.computeIfAbsent(studentId, k -> new HashSet<>()).add(courseId);
-        courseToStudents.computeIfAbsent(courseId, k -> new HashSet<>()).add(studentId);
+        if (!adjacency.addEdge(studentId, courseId)) {
+            return; // already enrolled
+        }
+        if (bitsetIndex != null) {
+            if (!bitsetIndex.addEnrollment(studentId, courseId)) {
+                bitsetIndex = null;
+            }
+            dropIndexDerivatives();
+        }
+        if (communities != null) {
+            communities.addEnrollment(studentId, courseId);
+        }
     }
 
     public void removeEnrollment(int studentId, int courseId) {
-        Set<Integer> studentCourses = studentToCourses.get(studentId);
-        if (studentCourses != null) {
-            studentCourses.remove(courseId);
+        if (!adjacency.removeEdge(studentId, courseId)) {
+            return;
         }
-
-        Set<Integer> courseStudents = courseToStudents.get(courseId);
-        if (courseStudents != null) {
-            courseStudents.remove(studentId);
+        if (bitsetIndex != null) {
+            bitsetIndex.removeEnrollment(studentId, courseId);
+            dropIndexDerivatives();
         }
+        // A removal may split a community, which union-find cannot undo
+        communities = null;
     }
 
+    /**
+     * Read-only view of the courses a student is enrolled in.
+     */
     public Set<Integer> getStudentCourses(int studentId) {
-        return studentToCourses.getOrDefault(studentId, Collections.emptySet());
+        return adjacency.coursesOf(studentId);
     }
 
+    /**
+     * Read-only view of the students enrolled in a course.
+     */
     public Set<Integer> getCourseStudents(int courseId) {
-        return courseToStudents.getOrDefault(courseId, Collections.emptySet());
+        return adjacency.studentsOf(courseId);
+    }
+
+    CompactAdjacency getAdjacency() {
+        return adjacency;
+    }
+
+    /**
+     * Folds buffered enrollment changes into the compact adjacency arrays. This also happens
+     * automatically once enough changes accumulate; calling it after a bulk load saves memory.
+     */
+    public void compact() {
+        adjacency.compact();
     }
 
     // === HELPER METHODS FOR UI ===
@@ -87,6 +148,10 @@ public class StudentCourseGraph {
         return list;
     }
 
+    public Student getStudent(int studentId) {
+        return students.get(studentId);
+    }
+
     public Course getCourse(int courseId) {
         return courses.get(courseId);
     }
@@ -106,22 +171,72 @@ public class StudentCourseGraph {
             return Collections.emptyList();
         }
 
-        List<StudentSimilarity> similarities = new ArrayList<>();
+        SimilarityScanner scanner = getSimilarityScanner();
+        CourseBitsetIndex index = scanner.getIndex();
+        int target = index.indexOf(studentId);
+        if (target < 0) {
+            return Collections.emptyList();
+        }
 
-        for (int otherStudentId : students.keySet()) {
-            if (otherStudentId == studentId) continue;
+        // Only students sharing a course with the target are visited
+        int count = scanner.scan(target, threshold);
+        List<StudentSimilarity> similarities = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            similarities.add(createSimilarity(index, target, scanner.resultStudent(i), scanner.resultSimilarity(i)));
+        }
 
-            Set<Integer> otherStudentCourses = getStudentCourses(otherStudentId);
-            if (otherStudentCourses.isEmpty()) continue;
+        similarities.sort((s1, s2) -> Double.compare(s2.getSimilarity(), s1.getSimilarity()));
+        return similarities;
+    }
 
-            double similarity = calculateJaccardSimilarity(studentCourses, otherStudentCourses);
+    /**
+     * Find all pairs of students whose Jaccard similarity reaches the threshold.
+     * Candidates come from MinHash/LSH and are verified exactly, so every returned pair is correct
+     * but a small fraction of qualifying pairs may be missed.
+     */
+    public List<StudentSimilarity> findAllSimilarPairs(double threshold) {
+        return findAllSimilarPairs(threshold, MinHashLsh.forThreshold(threshold));
+    }
+
+    /**
+     * Same as {@link #findAllSimilarPairs(double)} with explicit banding; see {@link MinHashLsh}
+     * for how bands and rows trade recall against precision.
+     */
+    public List<StudentSimilarity> findAllSimilarPairs(double threshold, MinHashLsh lsh) {
+        CourseBitsetIndex index = getBitsetIndex();
+        List<StudentSimilarity> similarities = new ArrayList<>();
+        int[] candidates = new int[1];
+
+        lsh.forEachCandidatePair(index, (a, b) -> {
+            candidates[0]++;
+            double similarity = index.jaccard(a, b);
             if (similarity >= threshold) {
-                similarities.add(new StudentSimilarity(
-                        students.get(studentId),
-                        students.get(otherStudentId),
-                        similarity,
-                        getCommonCourses(studentCourses, otherStudentCourses)
-                ));
+                similarities.add(createSimilarity(index, a, b, similarity));
+            }
+        });
+
+        logger.debug("LSH ({} bands x {} rows) verified {} candidate pairs, {} above threshold {}",
+                lsh.getBands(), lsh.getRows(), candidates[0], similarities.size(), threshold);
+        similarities.sort((s1, s2) -> Double.compare(s2.getSimilarity(), s1.getSimilarity()));
+        return similarities;
+    }
+
+    /**
+     * Exact all-pairs similarity by comparing every pair of students. Quadratic in the number of
+     * students; intended for small graphs and for checking the recall of the LSH variant.
+     */
+    public List<StudentSimilarity> findAllSimilarPairsExact(double threshold) {
+        CourseBitsetIndex index = getBitsetIndex();
+        List<StudentSimilarity> similarities = new ArrayList<>();
+
+        for (int a = 0; a < index.size(); a++) {
+            if (index.cardinality(a) == 0) continue;
+            for (int b = a + 1; b < index.size(); b++) {
+                if (index.cardinality(b) == 0) continue;
+                double similarity = index.jaccard(a, b);
+                if (similarity > 0.0 && similarity >= threshold) {
+                    similarities.add(createSimilarity(index, a, b, similarity));
+                }
             }
         }
 
@@ -129,89 +244,217 @@ public class StudentCourseGraph {
         return similarities;
     }
 
-    private double calculateJaccardSimilarity(Set<Integer> set1, Set<Integer> set2) {
-        Set<Integer> intersection = new HashSet<>(set1);
-        intersection.retainAll(set2);
+    private StudentSimilarity createSimilarity(CourseBitsetIndex index, int a, int b, double similarity) {
+        return new StudentSimilarity(
+                students.get(index.studentIdAt(a)),
+                students.get(index.studentIdAt(b)),
+                similarity,
+                index.commonCourses(a, b));
+    }
 
-        Set<Integer> union = new HashSet<>(set1);
-        union.addAll(set2);
+    CourseBitsetIndex getBitsetIndex() {
+        if (bitsetIndex == null) {
+            bitsetIndex = new CourseBitsetIndex(adjacency, students.keySet());
+        }
+        return bitsetIndex;
+    }
 
-        return union.isEmpty() ? 0.0 : (double) intersection.size() / union.size();
+    private void dropIndexDerivatives() {
+        similarityScanner = null;
+        recommendationRanker = null;
+        recommendationModel = null;
     }
 
-    private Set<Integer> getCommonCourses(Set<Integer> courses1, Set<Integer> courses2) {
-        Set<Integer> common = new HashSet<>(courses1);
-        common.retainAll(courses2);
-        return common;
+    private SimilarityScanner getSimilarityScanner() {
+        CourseBitsetIndex index = getBitsetIndex();
+        if (similarityScanner == null || similarityScanner.getIndex() != index) {
+            similarityScanner = new SimilarityScanner(index);
+        }
+        return similarityScanner;
     }
 
     /**
      * Find connected components of students (students connected through common courses)
      */
     public List<Set<Integer>> findStudentCommunities() {
-        Set<Integer> visited = new HashSet<>();
-        List<Set<Integer>> communities = new ArrayList<>();
-
-        for (int studentId : students.keySet()) {
-            if (!visited.contains(studentId)) {
-                Set<Integer> community = new HashSet<>();
-                dfsStudentCommunity(studentId, visited, community);
-                if (community.size() > 1) { // Only include communities with more than one student
-                    communities.add(community);
-                }
-            }
-        }
+        // Only include communities with more than one student
+        return getCommunities().communities(students.keySet(), 2);
+    }
 
-        return communities;
+    /**
+     * Number of students in the community of the given student, including the student.
+     */
+    public int getCommunitySize(int studentId) {
+        return getCommunities().sizeOf(studentId);
     }
 
-    private void dfsStudentCommunity(int studentId, Set<Integer> visited, Set<Integer> community) {
-        visited.add(studentId);
-        community.add(studentId);
+    public Set<Integer> getCommunityMembers(int studentId) {
+        return getCommunities().membersOf(studentId);
+    }
 
-        Set<Integer> studentCourses = getStudentCourses(studentId);
-        for (int courseId : studentCourses) {
-            Set<Integer> courseStudents = getCourseStudents(courseId);
-            for (int otherStudentId : courseStudents) {
-                if (!visited.contains(otherStudentId)) {
-                    dfsStudentCommunity(otherStudentId, visited, community);
-                }
-            }
+    public boolean areInSameCommunity(int studentId1, int studentId2) {
+        return getCommunities().connected(studentId1, studentId2);
+    }
+
+    /**
+     * Number of communities with more than one student.
+     */
+    public int getCommunityCount() {
+        return getCommunities().getCommunityCount();
+    }
+
+    private StudentCommunities getCommunities() {
+        if (communities == null) {
+            communities = StudentCommunities.build(students.keySet(), adjacency);
         }
+        return communities;
     }
 
     /**
      * Get course recommendations for a student based on what similar students are taking
      */
     public List<CourseRecommendation> getCourseRecommendations(int studentId, int maxRecommendations) {
-        List<StudentSimilarity> similarStudents = findSimilarStudents(studentId, 0.3); // 30% similarity threshold
-        Set<Integer> studentCourses = getStudentCourses(studentId);
+        return getCourseRecommendations(studentId, maxRecommendations,
+                RecommendationScorers.jaccard(), DEFAULT_RECOMMENDATION_SIMILARITY);
+    }
 
-        Map<Integer, Double> courseScores = new HashMap<>();
+    /**
+     * Course recommendations under the given scoring model, using only similar students whose
+     * similarity (as defined by the scorer) is at least minSimilarity.
+     */
+    public List<CourseRecommendation> getCourseRecommendations(int studentId, int maxRecommendations,
+                                                               RecommendationScorer scorer, double minSimilarity) {
+        if (maxRecommendations <= 0) {
+            return Collections.emptyList();
+        }
+        RecommendationRanker ranker = getRecommendationRanker();
+        CourseBitsetIndex index = ranker.getIndex();
+        int target = index.indexOf(studentId);
+        if (target < 0) {
+            return Collections.emptyList();
+        }
 
-        for (StudentSimilarity similarity : similarStudents) {
-            Set<Integer> otherStudentCourses = getStudentCourses(similarity.getStudent2().getStudentId());
-            for (int courseId : otherStudentCourses) {
-                if (!studentCourses.contains(courseId)) {
-                    courseScores.merge(courseId, similarity.getSimilarity(), Double::sum);
-                }
-            }
+        int[] courseIndexes = new int[maxRecommendations];
+        double[] scores = new double[maxRecommendations];
+        int count = ranker.rank(getRecommendationModel(index, scorer, minSimilarity),
+                target, maxRecommendations, courseIndexes, scores, 0);
+
+        List<CourseRecommendation> recommendations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int courseId = index.courseIdAt(courseIndexes[i]);
+            int seats = getAvailableSeats(courseId);
+            String reason = seats == Integer.MAX_VALUE
+                    ? "Based on similar students' enrollments"
+                    : "Based on similar students' enrollments, " + seats + (seats == 1 ? " seat left" : " seats left");
+            recommendations.add(new CourseRecommendation(courses.get(courseId), scores[i], reason));
         }
+        return recommendations;
+    }
 
-        return courseScores.entrySet().stream()
-                .sorted(Map.Entry.<Integer, Double>comparingByValue().reversed())
-                .limit(maxRecommendations)
-                .map(entry -> new CourseRecommendation(
-                        courses.get(entry.getKey()),
-                        entry.getValue(),
-                        "Based on similar students' enrollments"
-                ))
-                .collect(Collectors.toList());
+    private RecommendationRanker getRecommendationRanker() {
+        SimilarityScanner scanner = getSimilarityScanner();
+        if (recommendationRanker == null || recommendationRanker.getIndex() != scanner.getIndex()) {
+            recommendationRanker = new RecommendationRanker(scanner);
+        }
+        return recommendationRanker;
+    }
+
+    private RecommendationRanker.Model getRecommendationModel(CourseBitsetIndex index, RecommendationScorer scorer,
+                                                              double minSimilarity) {
+        if (recommendationModel == null || !recommendationModel.matches(index, scorer, minSimilarity)) {
+            recommendationModel = createRecommendationModel(index, scorer, minSimilarity);
+        }
+        return recommendationModel;
+    }
+
+    private RecommendationRanker.Model createRecommendationModel(CourseBitsetIndex index, RecommendationScorer scorer,
+                                                                 double minSimilarity) {
+        int[] enrolled = new int[index.courseCount()];
+        int[] capacity = new int[index.courseCount()];
+        for (int c = 0; c < index.courseCount(); c++) {
+            int courseId = index.courseIdAt(c);
+            enrolled[c] = adjacency.courseDegree(adjacency.courseIndexOf(courseId));
+            Course course = courses.get(courseId);
+            capacity[c] = course == null ? 0 : course.getCapacity();
+        }
+        return new RecommendationRanker.Model(index, scorer, minSimilarity, enrolled, capacity, excludeFullCourses);
+    }
+
+    /**
+     * Whether recommendations leave out courses that have no seats left (the default). Seat
+     * counts come from the graph itself, so checking them costs no database queries.
+     */
+    public boolean isExcludeFullCourses() {
+        return excludeFullCourses;
+    }
+
+    public void setExcludeFullCourses(boolean excludeFullCourses) {
+        this.excludeFullCourses = excludeFullCourses;
+        recommendationModel = null;
+    }
+
+    // === Seat counts, kept live from the enrollment adjacency ===
+
+    /**
+     * Number of students enrolled in the course, in O(1).
+     */
+    public int getEnrolledCount(int courseId) {
+        int c = adjacency.courseIndexOf(courseId);
+        return c < 0 ? 0 : adjacency.courseDegree(c);
+    }
+
+    /**
+     * Seats left in the course, or Integer.MAX_VALUE when its capacity is unknown.
+     */
+    public int getAvailableSeats(int courseId) {
+        Course course = courses.get(courseId);
+        if (course == null || course.getCapacity() <= 0) {
+            return Integer.MAX_VALUE;
+        }
+        return Math.max(0, course.getCapacity() - getEnrolledCount(courseId));
+    }
+
+    public boolean isCourseFull(int courseId) {
+        return getAvailableSeats(courseId) == 0;
+    }
+
+    /**
+     * Course recommendations for every student in one pass, using the same scoring as
+     * {@link #getCourseRecommendations(int, int)} with an explicit similarity threshold.
+     * Students are processed in parallel on the common ForkJoinPool.
+     */
+    public RecommendationTable recommendAll(int maxRecommendations, double threshold) {
+        return recommendAll(maxRecommendations, threshold, ForkJoinPool.commonPool());
+    }
+
+    public RecommendationTable recommendAll(int maxRecommendations, double threshold, ForkJoinPool pool) {
+        return recommendAll(maxRecommendations, RecommendationScorers.jaccard(), threshold, pool);
+    }
+
+    public RecommendationTable recommendAll(int maxRecommendations, RecommendationScorer scorer, double minSimilarity,
+                                            ForkJoinPool pool) {
+        if (maxRecommendations <= 0) {
+            throw new IllegalArgumentException("maxRecommendations must be positive: " + maxRecommendations);
+        }
+        long start = System.nanoTime();
+        CourseBitsetIndex index = getBitsetIndex();
+        // A student cannot get more recommendations than there are courses, so "all" is clamped
+        int width = Math.max(1, Math.min(maxRecommendations, index.courseCount()));
+        RecommendationTable table = new BulkRecommender(index,
+                createRecommendationModel(index, scorer, minSimilarity), width).run(pool);
+        logger.info("Computed {} recommendations for {} students in {} ms (parallelism {})",
+                table.getTotalRecommendations(), table.getStudentCount(),
+                (System.nanoTime() - start) / 1_000_000, pool.getParallelism());
+        return table;
     }
 
     public void clear() {
-        studentToCourses.clear();
-        courseToStudents.clear();
+        bitsetIndex = null;
+        similarityScanner = null;
+        recommendationRanker = null;
+        recommendationModel = null;
+        communities = new StudentCommunities();
+        adjacency.clear();
         students.clear();
         courses.clear();
     }
@@ -225,9 +468,7 @@ public class StudentCourseGraph {
     }
 
     public int getEnrollmentCount() {
-        return studentToCourses.values().stream()
-                .mapToInt(Set::size)
-                .sum();
+        return adjacency.getEdgeCount();
     }
 
     public static class StudentSimilarity {
@@ -0,0 +1,101 @@
+package com.schoolmanagementsystem.algorithm.graph;
+
+/**
+ * Bounded min-heap of (key, score) pairs that keeps the k best entries seen, in primitive arrays.
+ * An offer costs O(log k) and nothing is boxed. Ties on score prefer the smaller key, so the
+ * ranking does not depend on the order in which candidates were offered.
+ */
+class TopKHeap {
+    private final int[] keys;
+    private final double[] scores;
+    private int size;
+
+    TopKHeap(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.keys = new int[capacity];
+        this.scores = new double[capacity];
+    }
+
+    int capacity() {
+        return keys.length;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void offer(int key, double score) {
+        if (size < keys.length) {
+            keys[size] = key;
+            scores[size] = score;
+            siftUp(size++);
+        } else if (better(key, score, keys[0], scores[0])) {
+            keys[0] = key;
+            scores[0] = score;
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Writes the entries best first into the given arrays at offset, empties the heap and
+     * returns how many were written.
+     */
+    int drainDescending(int[] keyOut, double[] scoreOut, int offset) {
+        int count = size;
+        // Repeatedly move the worst remaining entry behind the shrinking heap
+        for (int i = count - 1; i >= 0; i--) {
+            keyOut[offset + i] = keys[0];
+            scoreOut[offset + i] = scores[0];
+            size--;
+            if (size > 0) {
+                keys[0] = keys[size];
+                scores[0] = scores[size];
+                siftDown(0);
+            }
+        }
+        return count;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    private static boolean better(int keyA, double scoreA, int keyB, double scoreB) {
+        return scoreA > scoreB || (scoreA == scoreB && keyA < keyB);
+    }
+
+    private void siftUp(int i) {
+        int key = keys[i];
+        double score = scores[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!better(keys[parent], scores[parent], key, score)) break;
+            keys[i] = keys[parent];
+            scores[i] = scores[parent];
+            i = parent;
+        }
+        keys[i] = key;
+        scores[i] = score;
+    }
+
+    private void siftDown(int i) {
+        int key = keys[i];
+        double score = scores[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && better(keys[child], scores[child], keys[right], scores[right])) {
+                child = right;
+            }
+            if (!better(key, score, keys[child], scores[child])) break;
+            keys[i] = keys[child];
+            scores[i] = scores[child];
+            i = child;
+        }
+        keys[i] = key;
+        scores[i] = score;
+    }
+}
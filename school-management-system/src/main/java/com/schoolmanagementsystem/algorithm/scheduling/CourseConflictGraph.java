@@ -0,0 +1,230 @@
+package com.schoolmanagementsystem.algorithm.scheduling;
+
+import com.schoolmanagementsystem.model.Enrollment;
+import com.schoolmanagementsystem.model.TimeSlot;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Undirected graph of courses that share students, weighted by how many students they share.
+ *
+ * Two courses joined by an edge of weight w cause w student clashes when they run at overlapping
+ * times. Neighbours are stored in CSR arrays indexed by a dense course index (course IDs in
+ * ascending order). Building it costs O(E + sum of squared student course loads).
+ */
+public class CourseConflictGraph {
+    private final int[] courseIds;
+    private final int[] offsets;
+    private final int[] neighbors;
+    private final int[] weights;
+    private final long[] weightedDegrees;
+
+    private CourseConflictGraph(int[] courseIds, int[] offsets, int[] neighbors, int[] weights) {
+        this.courseIds = courseIds;
+        this.offsets = offsets;
+        this.neighbors = neighbors;
+        this.weights = weights;
+        this.weightedDegrees = new long[courseIds.length];
+        for (int c = 0; c < courseIds.length; c++) {
+            for (int i = offsets[c]; i < offsets[c + 1]; i++) {
+                weightedDegrees[c] += weights[i];
+            }
+        }
+    }
+
+    /**
+     * Builds the graph over the given courses. Enrollments in other courses are ignored, and a
+     * student enrolled twice in one course counts once.
+     */
+    public static CourseConflictGraph fromEnrollments(Collection<Integer> courseIdCollection, List<Enrollment> enrollments) {
+        Builder builder = builder(courseIdCollection);
+        for (Enrollment enrollment : enrollments) {
+            builder.add(enrollment);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Builder over the given courses that takes enrollments one at a time, so they can come
+     * straight from a streaming read; each is kept as one packed long.
+     */
+    public static Builder builder(Collection<Integer> courseIdCollection) {
+        return new Builder(courseIdCollection.stream().mapToInt(Integer::intValue).sorted().distinct().toArray());
+    }
+
+    public static class Builder {
+        private final int[] courseIds;
+        // (student, course index) pairs
+        private long[] pairs = new long[1024];
+        private int pairCount;
+
+        private Builder(int[] courseIds) {
+            this.courseIds = courseIds;
+        }
+
+        /** Adds the enrollment's student/course pair; enrollments in other courses are ignored. */
+        public void add(Enrollment enrollment) {
+            int course = Arrays.binarySearch(courseIds, enrollment.getCourseId());
+            if (course < 0) {
+                return;
+            }
+            if (pairCount == pairs.length) {
+                pairs = Arrays.copyOf(pairs, pairCount * 2);
+            }
+            pairs[pairCount++] = ((long) enrollment.getStudentId() << 32) | course;
+        }
+
+        public CourseConflictGraph build() {
+            return CourseConflictGraph.build(courseIds, pairs, pairCount);
+        }
+    }
+
+    private static CourseConflictGraph build(int[] courseIds, long[] pairs, int pairCount) {
+        int courseCount = courseIds.length;
+
+        // Sorted by student, so each student's courses are adjacent
+        Arrays.sort(pairs, 0, pairCount);
+
+        // Student rows: courses of each student, duplicates dropped
+        int[] studentCourses = new int[pairCount];
+        int[] studentOffsets = new int[pairCount + 1];
+        int studentCount = 0;
+        int length = 0;
+        for (int i = 0; i < pairCount; i++) {
+            boolean newStudent = i == 0 || (pairs[i] >>> 32) != (pairs[i - 1] >>> 32);
+            if (newStudent) {
+                studentOffsets[studentCount++] = length;
+            } else if (pairs[i] == pairs[i - 1]) {
+                continue;
+            }
+            studentCourses[length++] = (int) pairs[i];
+        }
+        studentOffsets[studentCount] = length;
+
+        // Course rows: students of each course, by counting sort
+        int[] courseOffsets = new int[courseCount + 1];
+        for (int i = 0; i < length; i++) {
+            courseOffsets[studentCourses[i] + 1]++;
+        }
+        for (int c = 0; c < courseCount; c++) {
+            courseOffsets[c + 1] += courseOffsets[c];
+        }
+        int[] courseStudents = new int[length];
+        int[] fill = Arrays.copyOf(courseOffsets, courseCount);
+        for (int s = 0; s < studentCount; s++) {
+            for (int i = studentOffsets[s]; i < studentOffsets[s + 1]; i++) {
+                courseStudents[fill[studentCourses[i]]++] = s;
+            }
+        }
+
+        // Each course's row: sum over its students of their other courses
+        int[] offsets = new int[courseCount + 1];
+        int[] counts = new int[courseCount];
+        int[] touched = new int[courseCount];
+        int[] neighbors = new int[16];
+        int[] weights = new int[16];
+        int edgeEnds = 0;
+        for (int c = 0; c < courseCount; c++) {
+            int touchedCount = 0;
+            for (int i = courseOffsets[c]; i < courseOffsets[c + 1]; i++) {
+                int student = courseStudents[i];
+                for (int j = studentOffsets[student]; j < studentOffsets[student + 1]; j++) {
+                    int other = studentCourses[j];
+                    if (other != c && counts[other]++ == 0) {
+                        touched[touchedCount++] = other;
+                    }
+                }
+            }
+            Arrays.sort(touched, 0, touchedCount);
+            if (edgeEnds + touchedCount > neighbors.length) {
+                int capacity = Math.max(neighbors.length * 2, edgeEnds + touchedCount);
+                neighbors = Arrays.copyOf(neighbors, capacity);
+                weights = Arrays.copyOf(weights, capacity);
+            }
+            for (int t = 0; t < touchedCount; t++) {
+                int other = touched[t];
+                neighbors[edgeEnds] = other;
+                weights[edgeEnds++] = counts[other];
+                counts[other] = 0;
+            }
+            offsets[c + 1] = edgeEnds;
+        }
+        return new CourseConflictGraph(courseIds, offsets,
+                Arrays.copyOf(neighbors, edgeEnds), Arrays.copyOf(weights, edgeEnds));
+    }
+
+    public int courseCount() {
+        return courseIds.length;
+    }
+
+    /** Dense index of the course, or -1 if it is not in the graph. */
+    public int indexOf(int courseId) {
+        int index = Arrays.binarySearch(courseIds, courseId);
+        return index >= 0 ? index : -1;
+    }
+
+    public int courseIdAt(int index) {
+        return courseIds[index];
+    }
+
+    public int degree(int index) {
+        return offsets[index + 1] - offsets[index];
+    }
+
+    /** Total number of shared students over all neighbours of the course. */
+    public long weightedDegree(int index) {
+        return weightedDegrees[index];
+    }
+
+    /** Position of the course's first neighbour in {@link #neighborAt} and {@link #weightAt}. */
+    public int firstEdge(int index) {
+        return offsets[index];
+    }
+
+    /** Position just past the course's last neighbour. */
+    public int endEdge(int index) {
+        return offsets[index + 1];
+    }
+
+    public int neighborAt(int edge) {
+        return neighbors[edge];
+    }
+
+    public int weightAt(int edge) {
+        return weights[edge];
+    }
+
+    /** Number of edges, each counted once. */
+    public int edgeCount() {
+        return neighbors.length / 2;
+    }
+
+    /** Students shared by the two courses, 0 if either is unknown. */
+    public int sharedStudents(int courseIdA, int courseIdB) {
+        int a = indexOf(courseIdA);
+        int b = indexOf(courseIdB);
+        return a < 0 || b < 0 ? 0 : sharedStudentsAt(a, b);
+    }
+
+    /** Students shared by the courses at the two dense indexes. */
+    public int sharedStudentsAt(int indexA, int indexB) {
+        int edge = Arrays.binarySearch(neighbors, offsets[indexA], offsets[indexA + 1], indexB);
+        return edge >= 0 ? weights[edge] : 0;
+    }
+
+    /**
+     * Student clashes in a timetable: the shared students of every pair of courses placed at
+     * overlapping times, whatever their rooms.
+     */
+    public <T> long countStudentClashes(List<T> scheduled, Function<? super T, Integer> courseIdOf,
+                                        Function<? super T, TimeSlot> slotOf) {
+        long clashes = 0;
+        for (ScheduleConflicts.Conflict<T> conflict : ScheduleConflicts.findAll(scheduled, slotOf)) {
+            clashes += sharedStudents(courseIdOf.apply(conflict.getFirst()), courseIdOf.apply(conflict.getSecond()));
+        }
+        return clashes;
+    }
+}
@@ -5,12 +5,13 @@ import com.schoolmanagementsystem.model.TimeSlot;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.time.LocalTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
 /**
- * Greedy algorithm implementation for course scheduling (interval tree removed)
+ * Greedy algorithm implementation for course scheduling.
+ * Placement respects ScheduleConstraints: classes may run in parallel in different rooms as long
+ * as no teacher is booked twice. Each placement check is O(log n).
  */
 public class GreedyScheduler {
     private static final Logger logger = LoggerFactory.getLogger(GreedyScheduler.class);
@@ -51,10 +52,12 @@ public class GreedyScheduler {
     }
 
     private final List<CourseTimeSlot> scheduledClasses;
+    private final ScheduleConstraints constraints;
     private final List<TimeSlot> availableTimeSlots;
 
     public GreedyScheduler(List<TimeSlot> availableTimeSlots) {
         this.scheduledClasses = new ArrayList<>();
+        this.constraints = new ScheduleConstraints();
         this.availableTimeSlots = new ArrayList<>(availableTimeSlots);
 
         // Sort time slots by end time (greedy choice)
@@ -69,18 +72,36 @@ public class GreedyScheduler {
 
     public List<ScheduleResult> scheduleOptimal(List<ScheduleRequest> requests) {
         logger.info("Starting optimal scheduling for {} requests", requests.size());
+        return scheduleInOrder(requests);
+    }
+
+    /**
+     * Like {@link #scheduleOptimal(List)}, but requests that tie on priority and preferred end
+     * time are taken in an order shuffled by the seed instead of input order. The same seed
+     * gives the same schedule.
+     */
+    public List<ScheduleResult> scheduleOptimal(List<ScheduleRequest> requests, long seed) {
+        logger.info("Starting optimal scheduling for {} requests with tie-break seed {}", requests.size(), seed);
+        List<ScheduleRequest> shuffled = new ArrayList<>(requests);
+        Collections.shuffle(shuffled, new Random(seed));
+        return scheduleInOrder(shuffled);
+    }
 
-        // Sort requests by priority (higher priority first), then by preferred end time
+    private List<ScheduleResult> scheduleInOrder(List<ScheduleRequest> requests) {
+        // Sort requests by priority (higher priority first), then by preferred end time, requests
+        // without a preference last, so that the order is a consistent total preorder
         List<ScheduleRequest> sortedRequests = requests.stream()
                 .sorted((r1, r2) -> {
                     int priorityComparison = Integer.compare(r2.getPriority(), r1.getPriority());
                     if (priorityComparison != 0) {
                         return priorityComparison;
                     }
-                    if (r1.getPreferredTimeSlot() != null && r2.getPreferredTimeSlot() != null) {
-                        return r1.getPreferredTimeSlot().getEndTime().compareTo(r2.getPreferredTimeSlot().getEndTime());
+                    TimeSlot preferred1 = r1.getPreferredTimeSlot();
+                    TimeSlot preferred2 = r2.getPreferredTimeSlot();
+                    if (preferred1 != null && preferred2 != null) {
+                        return preferred1.getEndTime().compareTo(preferred2.getEndTime());
                     }
-                    return 0;
+                    return Boolean.compare(preferred1 == null, preferred2 == null);
                 })
                 .collect(Collectors.toList());
 
@@ -104,16 +125,18 @@ public class GreedyScheduler {
 
         // First, try to schedule at preferred time slot
         if (preferredSlot != null) {
-            if (canScheduleAt(preferredSlot)) {
+            if (canScheduleAt(course, preferredSlot)) {
                 addToSchedule(course, preferredSlot);
                 logger.debug("Scheduled {} at preferred time slot: {}", course.getCourseCode(), preferredSlot);
                 return new ScheduleResult(course, preferredSlot, true, "Scheduled at preferred time");
             }
+            logger.debug("Preferred time slot for {} unavailable: {}", course.getCourseCode(),
+                    constraints.findViolation(course, preferredSlot));
         }
 
         // If preferred slot is not available, find the best alternative using greedy approach
         for (TimeSlot timeSlot : availableTimeSlots) {
-            if (canScheduleAt(timeSlot)) {
+            if (canScheduleAt(course, timeSlot)) {
                 addToSchedule(course, timeSlot);
                 logger.debug("Scheduled {} at alternative time slot: {}", course.getCourseCode(), timeSlot);
                 return new ScheduleResult(course, timeSlot, true, "Scheduled at alternative time");
@@ -124,27 +147,14 @@ public class GreedyScheduler {
         return new ScheduleResult(course, null, false, "No available time slots");
     }
 
-    private boolean canScheduleAt(TimeSlot timeSlot) {
-        // Check for overlap with already scheduled classes
-        for (CourseTimeSlot cts : scheduledClasses) {
-            if (cts.getTimeSlot().getDayOfWeek().equals(timeSlot.getDayOfWeek()) &&
-                    isOverlap(cts.getTimeSlot(), timeSlot)) {
-                return false;
-            }
-        }
-        return true;
-    }
-
-    private boolean isOverlap(TimeSlot ts1, TimeSlot ts2) {
-        LocalTime start1 = ts1.getStartTime();
-        LocalTime end1 = ts1.getEndTime();
-        LocalTime start2 = ts2.getStartTime();
-        LocalTime end2 = ts2.getEndTime();
-        return !(end1.compareTo(start2) <= 0 || start1.compareTo(end2) >= 0);
+    private boolean canScheduleAt(Course course, TimeSlot timeSlot) {
+        return constraints.canPlace(course, timeSlot);
     }
 
     private void addToSchedule(Course course, TimeSlot timeSlot) {
-        scheduledClasses.add(new CourseTimeSlot(course, timeSlot));
+        CourseTimeSlot scheduled = new CourseTimeSlot(course, timeSlot);
+        scheduledClasses.add(scheduled);
+        constraints.place(scheduled);
     }
 
     public List<CourseTimeSlot> getScheduledClasses() {
@@ -152,22 +162,19 @@ public class GreedyScheduler {
     }
 
     public boolean hasConflicts() {
-        // Brute force check for pairwise conflicts
-        for (int i = 0; i < scheduledClasses.size(); i++) {
-            for (int j = i + 1; j < scheduledClasses.size(); j++) {
-                CourseTimeSlot cts1 = scheduledClasses.get(i);
-                CourseTimeSlot cts2 = scheduledClasses.get(j);
-                if (cts1.getTimeSlot().getDayOfWeek().equals(cts2.getTimeSlot().getDayOfWeek()) &&
-                        isOverlap(cts1.getTimeSlot(), cts2.getTimeSlot())) {
-                    return true;
-                }
-            }
-        }
-        return false;
+        return ScheduleConstraints.hasConflicts(scheduledClasses);
+    }
+
+    /**
+     * All pairs of scheduled classes that share a room or a teacher at overlapping times.
+     */
+    public List<ScheduleConflicts.Conflict<CourseTimeSlot>> findConflicts() {
+        return ScheduleConstraints.findConflicts(scheduledClasses);
     }
 
     public void clearSchedule() {
         scheduledClasses.clear();
+        constraints.clear();
     }
 
     public static class CourseTimeSlot {
@@ -0,0 +1,480 @@
+package com.schoolmanagementsystem.algorithm.scheduling;
+
+import com.schoolmanagementsystem.algorithm.scheduling.GreedyScheduler.CourseTimeSlot;
+import com.schoolmanagementsystem.algorithm.scheduling.GreedyScheduler.ScheduleRequest;
+import com.schoolmanagementsystem.algorithm.scheduling.GreedyScheduler.ScheduleResult;
+import com.schoolmanagementsystem.model.Course;
+import com.schoolmanagementsystem.model.TimeSlot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Simulated-annealing improvement phase for a finished schedule.
+ *
+ * The cost of a schedule is a weighted sum of unplaced courses, courses placed away from their
+ * preferred slot and student clashes (shared students of courses in overlapping periods, from a
+ * CourseConflictGraph). A move picks a course and a slot: the course moves there if the room is
+ * free, swaps with the course holding the room, or, if it was unplaced, takes the room over.
+ * Rooms and teachers stay conflict-free through ScheduleConstraints, and each move is scored by
+ * recomputing only the moved courses' contributions, O(degree).
+ *
+ * Independent restarts from the initial schedule run in parallel within one wall-clock budget,
+ * each with its own seed, and the cheapest result wins. With an iteration limit and enough time,
+ * a restart is reproducible from its seed.
+ */
+public class LocalSearchOptimizer {
+    private static final Logger logger = LoggerFactory.getLogger(LocalSearchOptimizer.class);
+
+    private static final int CHECK_INTERVAL = 1024;
+    private static final int TEMPERATURE_SAMPLES = 256;
+    private static final double FINAL_TEMPERATURE_RATIO = 1e-3;
+
+    private final List<TimeSlot> timeSlots;
+    private final SlotPeriods periods;
+    private final CourseConflictGraph conflictGraph; // null when student clashes are not scored
+    private final Map<TimeSlot, Integer> slotIndex = new HashMap<>();
+
+    private long unplacedWeight = 1000;
+    private long preferredMissWeight = 10;
+    private long studentClashWeight = 1;
+    private int restarts = Runtime.getRuntime().availableProcessors();
+    private long maxIterations;
+    private long seed = 1;
+
+    public LocalSearchOptimizer(List<TimeSlot> timeSlots, CourseConflictGraph conflictGraph) {
+        this.timeSlots = new ArrayList<>(timeSlots);
+        this.periods = new SlotPeriods(this.timeSlots);
+        this.conflictGraph = conflictGraph;
+        for (int s = 0; s < this.timeSlots.size(); s++) {
+            slotIndex.putIfAbsent(this.timeSlots.get(s), s);
+        }
+    }
+
+    public void setWeights(long unplacedWeight, long preferredMissWeight, long studentClashWeight) {
+        this.unplacedWeight = unplacedWeight;
+        this.preferredMissWeight = preferredMissWeight;
+        this.studentClashWeight = studentClashWeight;
+    }
+
+    /** Number of independent restarts, run in parallel. */
+    public void setRestarts(int restarts) {
+        this.restarts = Math.max(1, restarts);
+    }
+
+    /** Iterations per restart on top of the time budget; 0 means only the time budget applies. */
+    public void setMaxIterations(long maxIterations) {
+        this.maxIterations = maxIterations;
+    }
+
+    /** Seed of the first restart; restart i uses seed + i. */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Improves the initial results (one per request, as returned by a scheduler) for up to
+     * timeBudgetMillis and returns the best schedule found, never worse than the initial one.
+     */
+    public Result optimize(List<ScheduleRequest> requests, List<ScheduleResult> initial, long timeBudgetMillis) {
+        Problem problem = new Problem(requests, initial);
+        long initialCost = new Search(problem, seed).cost().total();
+        logger.info("Starting local search: {} courses, {} restarts, {} ms, initial cost {}",
+                requests.size(), restarts, timeBudgetMillis, initialCost);
+
+        // One thread per restart, all sharing the same wall-clock budget
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(restarts);
+        try {
+            List<Future<Result>> futures = new ArrayList<>();
+            for (int i = 0; i < restarts; i++) {
+                Search search = new Search(problem, seed + i);
+                futures.add(executor.submit(() -> search.run(start, timeBudgetMillis, initialCost)));
+            }
+            Result best = null;
+            for (Future<Result> future : futures) {
+                Result result = future.get();
+                if (best == null || result.getCost().total() < best.getCost().total()) {
+                    best = result;
+                }
+            }
+            logger.info("Local search completed: cost {} -> {} (seed {}, {} iterations)",
+                    initialCost, best.getCost().total(), best.getSeed(), best.getIterations());
+            return best;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Local search interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Local search failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Scores results for the requests with this optimizer's cost function, lower being better.
+     * Placements that double-book a room or teacher count as unplaced.
+     */
+    public Cost evaluate(List<ScheduleRequest> requests, List<ScheduleResult> results) {
+        return new Search(new Problem(requests, results), seed).cost();
+    }
+
+    /**
+     * Cost components of a schedule and their weighted total.
+     */
+    public static class Cost {
+        private final int unplaced;
+        private final int preferredMisses;
+        private final long studentClashes;
+        private final long total;
+
+        public Cost(int unplaced, int preferredMisses, long studentClashes, long total) {
+            this.unplaced = unplaced;
+            this.preferredMisses = preferredMisses;
+            this.studentClashes = studentClashes;
+            this.total = total;
+        }
+
+        public int getUnplaced() { return unplaced; }
+        public int getPreferredMisses() { return preferredMisses; }
+        public long getStudentClashes() { return studentClashes; }
+        public long total() { return total; }
+
+        @Override
+        public String toString() {
+            return total + " (unplaced " + unplaced + ", preferred misses " + preferredMisses
+                    + ", student clashes " + studentClashes + ")";
+        }
+    }
+
+    public static class Result {
+        private final List<ScheduleResult> results;
+        private final Cost cost;
+        private final long initialCost;
+        private final long seed;
+        private final long iterations;
+
+        public Result(List<ScheduleResult> results, Cost cost, long initialCost, long seed, long iterations) {
+            this.results = results;
+            this.cost = cost;
+            this.initialCost = initialCost;
+            this.seed = seed;
+            this.iterations = iterations;
+        }
+
+        public List<ScheduleResult> getResults() { return results; }
+        public Cost getCost() { return cost; }
+        public long getInitialCost() { return initialCost; }
+        /** Seed of the restart that produced this result. */
+        public long getSeed() { return seed; }
+        public long getIterations() { return iterations; }
+    }
+
+    /**
+     * Read-only view of the requests shared by all restarts.
+     */
+    private class Problem {
+        private final List<ScheduleRequest> requests;
+        private final int[] initialSlot;
+        private final int[] preferredSlot; // -1 when there is no preference, -2 when it is not a known slot
+        private final int[] courseIndex;
+        private final int[] requestOfCourse;
+
+        Problem(List<ScheduleRequest> requests, List<ScheduleResult> initial) {
+            int n = requests.size();
+            this.requests = requests;
+            this.initialSlot = new int[n];
+            this.preferredSlot = new int[n];
+            this.courseIndex = new int[n];
+            this.requestOfCourse = new int[conflictGraph == null ? 0 : conflictGraph.courseCount()];
+            Arrays.fill(requestOfCourse, -1);
+
+            Map<Integer, Integer> assigned = new HashMap<>();
+            for (ScheduleResult result : initial) {
+                if (result.isSuccessful() && result.getAssignedTimeSlot() != null) {
+                    Integer slot = slotIndex.get(result.getAssignedTimeSlot());
+                    if (slot != null) {
+                        assigned.put(result.getCourse().getCourseId(), slot);
+                    }
+                }
+            }
+            for (int r = 0; r < n; r++) {
+                ScheduleRequest request = requests.get(r);
+                int courseId = request.getCourse().getCourseId();
+                initialSlot[r] = assigned.getOrDefault(courseId, -1);
+                TimeSlot preferred = request.getPreferredTimeSlot();
+                preferredSlot[r] = preferred == null ? -1 : slotIndex.getOrDefault(preferred, -2);
+                courseIndex[r] = conflictGraph == null ? -1 : conflictGraph.indexOf(courseId);
+                if (courseIndex[r] >= 0) {
+                    requestOfCourse[courseIndex[r]] = r;
+                }
+            }
+        }
+    }
+
+    /**
+     * One annealing run over its own copy of the schedule.
+     */
+    private class Search {
+        private final Problem problem;
+        private final long seed;
+        private final SplittableRandom random;
+        private final int n;
+        private final int[] slotOf;
+        private final CourseTimeSlot[] bookings;
+        private final Map<CourseTimeSlot, Integer> requestOfBooking = new IdentityHashMap<>();
+        private final ScheduleConstraints constraints = new ScheduleConstraints();
+
+        Search(Problem problem, long seed) {
+            this.problem = problem;
+            this.seed = seed;
+            this.random = new SplittableRandom(seed);
+            this.n = problem.requests.size();
+            this.slotOf = new int[n];
+            this.bookings = new CourseTimeSlot[n];
+            Arrays.fill(slotOf, -1);
+            for (int r = 0; r < n; r++) {
+                int slot = problem.initialSlot[r];
+                if (slot >= 0 && constraints.canPlace(course(r), timeSlots.get(slot))) {
+                    book(r, slot);
+                }
+            }
+        }
+
+        Result run(long start, long timeBudgetMillis, long initialCost) {
+            long budgetNanos = timeBudgetMillis * 1_000_000L;
+            long current = cost().total();
+            long best = current;
+            int[] bestSlotOf = slotOf.clone();
+            boolean bestIsCurrent = true;
+
+            double initialTemperature = sampleTemperature();
+            double temperature = initialTemperature;
+            long iterations = 0;
+            while (n > 0 && !timeSlots.isEmpty()) {
+                if (iterations % CHECK_INTERVAL == 0) {
+                    double progress = budgetNanos > 0 ? (System.nanoTime() - start) / (double) budgetNanos : 1.0;
+                    if (maxIterations > 0) {
+                        progress = Math.max(progress, iterations / (double) maxIterations);
+                    }
+                    if (progress >= 1.0) break;
+                    temperature = initialTemperature * Math.pow(FINAL_TEMPERATURE_RATIO, progress);
+                }
+                iterations++;
+
+                int request = random.nextInt(n);
+                int slot = random.nextInt(timeSlots.size());
+                Move move = tryMove(request, slot);
+                if (move == null) continue;
+
+                if (move.delta <= 0 || random.nextDouble() < Math.exp(-move.delta / temperature)) {
+                    if (move.delta > 0 && bestIsCurrent) {
+                        // The schedule before this move is the best so far
+                        System.arraycopy(slotOf, 0, bestSlotOf, 0, n);
+                        bestSlotOf[move.request] = move.previousSlot;
+                        if (move.other >= 0) bestSlotOf[move.other] = move.otherPreviousSlot;
+                        bestIsCurrent = false;
+                    }
+                    current += move.delta;
+                    if (current < best) {
+                        best = current;
+                        bestIsCurrent = true;
+                    }
+                } else {
+                    undo(move);
+                }
+            }
+            if (bestIsCurrent) {
+                System.arraycopy(slotOf, 0, bestSlotOf, 0, n);
+            }
+            restore(bestSlotOf);
+            return new Result(results(), cost(), initialCost, seed, iterations);
+        }
+
+        /** Average cost increase of random moves, so that early on most of them are accepted. */
+        private double sampleTemperature() {
+            double sum = 0;
+            int count = 0;
+            for (int i = 0; i < TEMPERATURE_SAMPLES && n > 0 && !timeSlots.isEmpty(); i++) {
+                Move move = tryMove(random.nextInt(n), random.nextInt(timeSlots.size()));
+                if (move == null) continue;
+                if (move.delta > 0) {
+                    sum += move.delta;
+                    count++;
+                }
+                undo(move);
+            }
+            return count == 0 ? Math.max(1.0, preferredMissWeight) : sum / count;
+        }
+
+        /**
+         * Applies the move of request to slot (with a swap or takeover if the room is held) and
+         * returns it with its cost delta, or returns null, changing nothing, if it is not allowed.
+         */
+        private Move tryMove(int request, int slot) {
+            int previousSlot = slotOf[request];
+            if (previousSlot == slot) return null;
+            CourseTimeSlot occupant = constraints.roomOccupant(timeSlots.get(slot));
+            int other = occupant == null ? -1 : requestOfBooking.get(occupant);
+            if (other == request) other = -1;
+            int otherPreviousSlot = other >= 0 ? slotOf[other] : -1;
+
+            long before = contribution(request) + (other >= 0 ? contribution(other) - pairClash(request, other) : 0);
+            unbook(request);
+            if (other >= 0) unbook(other);
+
+            boolean allowed = constraints.canPlace(course(request), timeSlots.get(slot));
+            if (allowed) {
+                book(request, slot);
+                if (other >= 0 && previousSlot >= 0) {
+                    allowed = constraints.canPlace(course(other), timeSlots.get(previousSlot));
+                    if (allowed) {
+                        book(other, previousSlot);
+                    } else {
+                        unbook(request);
+                    }
+                }
+            }
+            if (!allowed) {
+                if (previousSlot >= 0) book(request, previousSlot);
+                if (other >= 0) book(other, otherPreviousSlot);
+                return null;
+            }
+
+            long after = contribution(request) + (other >= 0 ? contribution(other) - pairClash(request, other) : 0);
+            return new Move(request, previousSlot, other, otherPreviousSlot, after - before);
+        }
+
+        private void undo(Move move) {
+            unbook(move.request);
+            if (move.other >= 0) unbook(move.other);
+            if (move.previousSlot >= 0) book(move.request, move.previousSlot);
+            if (move.other >= 0) book(move.other, move.otherPreviousSlot);
+        }
+
+        private void restore(int[] target) {
+            for (int r = 0; r < n; r++) {
+                unbook(r);
+            }
+            for (int r = 0; r < n; r++) {
+                if (target[r] >= 0) book(r, target[r]);
+            }
+        }
+
+        private void book(int request, int slot) {
+            CourseTimeSlot booking = new CourseTimeSlot(course(request), timeSlots.get(slot));
+            constraints.place(booking);
+            requestOfBooking.put(booking, request);
+            bookings[request] = booking;
+            slotOf[request] = slot;
+        }
+
+        private void unbook(int request) {
+            CourseTimeSlot booking = bookings[request];
+            if (booking == null) return;
+            constraints.remove(booking);
+            requestOfBooking.remove(booking);
+            bookings[request] = null;
+            slotOf[request] = -1;
+        }
+
+        private Course course(int request) {
+            return problem.requests.get(request).getCourse();
+        }
+
+        /** Weighted cost attributable to one request, counting each of its clashes in full. */
+        private long contribution(int request) {
+            if (slotOf[request] < 0) {
+                return unplacedWeight;
+            }
+            int preferred = problem.preferredSlot[request];
+            long cost = preferred != -1 && preferred != slotOf[request] ? preferredMissWeight : 0;
+            return cost + studentClashWeight * clashes(request);
+        }
+
+        private long clashes(int request) {
+            int c = problem.courseIndex[request];
+            if (c < 0 || slotOf[request] < 0) return 0;
+            int period = periods.periodOf(slotOf[request]);
+            long clashes = 0;
+            for (int e = conflictGraph.firstEdge(c); e < conflictGraph.endEdge(c); e++) {
+                int neighbor = problem.requestOfCourse[conflictGraph.neighborAt(e)];
+                if (neighbor >= 0 && slotOf[neighbor] >= 0 && periods.overlap(period, periods.periodOf(slotOf[neighbor]))) {
+                    clashes += conflictGraph.weightAt(e);
+                }
+            }
+            return clashes;
+        }
+
+        /** The weighted clash between two requests, which both their contributions include. */
+        private long pairClash(int a, int b) {
+            int ca = problem.courseIndex[a];
+            int cb = problem.courseIndex[b];
+            if (ca < 0 || cb < 0 || slotOf[a] < 0 || slotOf[b] < 0
+                    || !periods.overlap(periods.periodOf(slotOf[a]), periods.periodOf(slotOf[b]))) {
+                return 0;
+            }
+            return studentClashWeight * conflictGraph.sharedStudentsAt(ca, cb);
+        }
+
+        Cost cost() {
+            int unplaced = 0;
+            int preferredMisses = 0;
+            long clashes = 0;
+            for (int r = 0; r < n; r++) {
+                if (slotOf[r] < 0) {
+                    unplaced++;
+                    continue;
+                }
+                int preferred = problem.preferredSlot[r];
+                if (preferred != -1 && preferred != slotOf[r]) preferredMisses++;
+                clashes += clashes(r);
+            }
+            clashes /= 2;
+            long total = unplaced * unplacedWeight + preferredMisses * preferredMissWeight + clashes * studentClashWeight;
+            return new Cost(unplaced, preferredMisses, clashes, total);
+        }
+
+        private List<ScheduleResult> results() {
+            List<ScheduleResult> results = new ArrayList<>(n);
+            for (int r = 0; r < n; r++) {
+                Course course = course(r);
+                if (slotOf[r] < 0) {
+                    results.add(new ScheduleResult(course, null, false, "No available time slots"));
+                } else {
+                    boolean preferred = problem.preferredSlot[r] == slotOf[r];
+                    results.add(new ScheduleResult(course, timeSlots.get(slotOf[r]), true,
+                            preferred ? "Scheduled at preferred time" : "Scheduled at alternative time"));
+                }
+            }
+            return results;
+        }
+    }
+
+    private static class Move {
+        private final int request;
+        private final int previousSlot;
+        private final int other;
+        private final int otherPreviousSlot;
+        private final long delta;
+
+        Move(int request, int previousSlot, int other, int otherPreviousSlot, long delta) {
+            this.request = request;
+            this.previousSlot = previousSlot;
+            this.other = other;
+            this.otherPreviousSlot = otherPreviousSlot;
+            this.delta = delta;
+        }
+    }
+}
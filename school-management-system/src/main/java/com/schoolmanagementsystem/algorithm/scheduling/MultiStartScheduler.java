@@ -0,0 +1,133 @@
+package com.schoolmanagementsystem.algorithm.scheduling;
+
+import com.schoolmanagementsystem.algorithm.scheduling.GreedyScheduler.ScheduleRequest;
+import com.schoolmanagementsystem.algorithm.scheduling.GreedyScheduler.ScheduleResult;
+import com.schoolmanagementsystem.model.TimeSlot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs several GreedyScheduler instances with differently seeded tie-breaks in parallel and
+ * keeps the cheapest schedule under the LocalSearchOptimizer cost function.
+ *
+ * Run i uses seed baseSeed + i. Every run's seed and cost are recorded, and
+ * {@link #schedule(List, long)} rebuilds the schedule of any of them.
+ */
+public class MultiStartScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(MultiStartScheduler.class);
+
+    private final List<TimeSlot> timeSlots;
+    private final LocalSearchOptimizer evaluator;
+
+    public MultiStartScheduler(List<TimeSlot> timeSlots, CourseConflictGraph conflictGraph) {
+        this.timeSlots = new ArrayList<>(timeSlots);
+        this.evaluator = new LocalSearchOptimizer(this.timeSlots, conflictGraph);
+    }
+
+    /**
+     * The scorer runs are compared with; its weights can be changed before {@link #run}.
+     */
+    public LocalSearchOptimizer getEvaluator() {
+        return evaluator;
+    }
+
+    /**
+     * The schedule of the run with the given seed.
+     */
+    public List<ScheduleResult> schedule(List<ScheduleRequest> requests, long seed) {
+        return new GreedyScheduler(timeSlots).scheduleOptimal(requests, seed);
+    }
+
+    public Result run(List<ScheduleRequest> requests, int runs, long baseSeed) {
+        int threads = Math.max(1, Math.min(runs, Runtime.getRuntime().availableProcessors()));
+        logger.info("Starting {} scheduling runs from seed {} on {} threads", runs, baseSeed, threads);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Run>> futures = new ArrayList<>();
+            for (int i = 0; i < runs; i++) {
+                long seed = baseSeed + i;
+                futures.add(executor.submit(() -> {
+                    List<ScheduleResult> results = schedule(requests, seed);
+                    return new Run(seed, evaluator.evaluate(requests, results), results);
+                }));
+            }
+
+            List<Run> completed = new ArrayList<>(runs);
+            Run best = null;
+            for (Future<Run> future : futures) {
+                Run run = future.get();
+                completed.add(run);
+                if (best == null || run.getCost().total() < best.getCost().total()) {
+                    best = run;
+                }
+            }
+            if (best == null) {
+                return new Result(null, Collections.emptyList());
+            }
+            for (Run run : completed) {
+                if (run != best) run.results = null;
+            }
+            logger.info("Best of {} scheduling runs: seed {}, cost {}", runs, best.getSeed(), best.getCost());
+            return new Result(best, completed);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Scheduling runs interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Scheduling run failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * One seeded run; only the best run keeps its results.
+     */
+    public static class Run {
+        private final long seed;
+        private final LocalSearchOptimizer.Cost cost;
+        private List<ScheduleResult> results;
+
+        public Run(long seed, LocalSearchOptimizer.Cost cost, List<ScheduleResult> results) {
+            this.seed = seed;
+            this.cost = cost;
+            this.results = results;
+        }
+
+        public long getSeed() { return seed; }
+        public LocalSearchOptimizer.Cost getCost() { return cost; }
+
+        @Override
+        public String toString() {
+            return "seed " + seed + ": " + cost;
+        }
+    }
+
+    public static class Result {
+        private final Run best;
+        private final List<Run> runs;
+
+        public Result(Run best, List<Run> runs) {
+            this.best = best;
+            this.runs = runs;
+        }
+
+        /** Results of the cheapest run, empty if there were no runs. */
+        public List<ScheduleResult> getResults() {
+            return best == null ? Collections.emptyList() : best.results;
+        }
+
+        /** The cheapest run, null if there were no runs. */
+        public Run getBest() { return best; }
+        /** Every run in seed order. */
+        public List<Run> getRuns() { return runs; }
+    }
+}
@@ -0,0 +1,146 @@
+package com.schoolmanagementsystem.algorithm.scheduling;
+
+import com.schoolmanagementsystem.model.TimeSlot;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Weekly occupancy of one resource as disjoint intervals, indexed per day by start time.
+ *
+ * Because the stored intervals never overlap, ordering them by start also orders them by end,
+ * so the only interval that can overlap [start, end) is the one with the greatest start before
+ * end. Queries and inserts are a single TreeMap lookup, O(log n). Intervals are half-open:
+ * slots that merely touch do not overlap, and empty slots never do.
+ *
+ * The same intervals are also kept in a WeekGrid bitmap. While every interval lies on 5-minute
+ * boundaries, free checks for aligned slots are answered from the bitmap in a word or two, and
+ * the TreeMap is only searched to name an occupant.
+ */
+public class OccupancyTimeline<T> {
+    private static final int DAYS = TimeSlot.DayOfWeek.values().length;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private final TreeMap<Integer, Interval<T>>[] days = new TreeMap[DAYS];
+    private final WeekGrid grid = new WeekGrid();
+    private int size;
+    private int unaligned;
+
+    public OccupancyTimeline() {
+        for (int d = 0; d < DAYS; d++) {
+            days[d] = new TreeMap<>();
+        }
+    }
+
+    /**
+     * The occupant overlapping the given slot, or null if the slot is free.
+     */
+    public T findOverlap(TimeSlot timeSlot) {
+        Interval<T> interval = overlapping(timeSlot);
+        return interval == null ? null : interval.occupant;
+    }
+
+    public boolean isFree(TimeSlot timeSlot) {
+        int start = timeSlot.getStartTime().toSecondOfDay();
+        int end = timeSlot.getEndTime().toSecondOfDay();
+        if (unaligned == 0 && WeekGrid.isAligned(start, end)) {
+            int day = timeSlot.getDayOfWeek().ordinal();
+            return !grid.intersects(WeekGrid.fromQuantum(day, start), WeekGrid.toQuantum(day, end));
+        }
+        return overlapping(timeSlot) == null;
+    }
+
+    /**
+     * Occupies the slot for occupant unless it overlaps an existing interval.
+     * Returns whether the slot was taken.
+     */
+    public boolean occupy(TimeSlot timeSlot, T occupant) {
+        int start = timeSlot.getStartTime().toSecondOfDay();
+        int end = timeSlot.getEndTime().toSecondOfDay();
+        if (end <= start || overlapping(timeSlot) != null) {
+            return false;
+        }
+        days[timeSlot.getDayOfWeek().ordinal()].put(start, new Interval<>(end, occupant));
+        if (WeekGrid.isAligned(start, end)) {
+            grid.set(timeSlot);
+        } else {
+            unaligned++;
+        }
+        size++;
+        return true;
+    }
+
+    /**
+     * Frees the interval starting exactly at the slot's start, returning its occupant or null.
+     */
+    public T release(TimeSlot timeSlot) {
+        int day = timeSlot.getDayOfWeek().ordinal();
+        int start = timeSlot.getStartTime().toSecondOfDay();
+        Interval<T> removed = days[day].remove(start);
+        if (removed == null) {
+            return null;
+        }
+        if (WeekGrid.isAligned(start, removed.end)) {
+            grid.clear(WeekGrid.fromQuantum(day, start), WeekGrid.toQuantum(day, removed.end));
+        } else {
+            unaligned--;
+        }
+        size--;
+        return removed.occupant;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        for (TreeMap<Integer, Interval<T>> day : days) {
+            day.clear();
+        }
+        grid.clear();
+        size = 0;
+        unaligned = 0;
+    }
+
+    /**
+     * A copy of the occupied quanta. Intervals off the 5-minute grid are rounded outwards.
+     */
+    public WeekGrid occupancy() {
+        WeekGrid copy = new WeekGrid(grid);
+        if (unaligned > 0) {
+            for (int d = 0; d < DAYS; d++) {
+                for (Map.Entry<Integer, Interval<T>> entry : days[d].entrySet()) {
+                    if (!WeekGrid.isAligned(entry.getKey(), entry.getValue().end)) {
+                        copy.set(WeekGrid.fromQuantum(d, entry.getKey()), WeekGrid.toQuantum(d, entry.getValue().end));
+                    }
+                }
+            }
+        }
+        return copy;
+    }
+
+    private Interval<T> overlapping(TimeSlot timeSlot) {
+        int start = timeSlot.getStartTime().toSecondOfDay();
+        int end = timeSlot.getEndTime().toSecondOfDay();
+        if (end <= start) {
+            return null;
+        }
+        int day = timeSlot.getDayOfWeek().ordinal();
+        if (unaligned == 0 && WeekGrid.isAligned(start, end)
+                && !grid.intersects(WeekGrid.fromQuantum(day, start), WeekGrid.toQuantum(day, end))) {
+            return null;
+        }
+        Map.Entry<Integer, Interval<T>> before = days[day].lowerEntry(end);
+        return before != null && before.getValue().end > start ? before.getValue() : null;
+    }
+
+    private static class Interval<T> {
+        private final int end;
+        private final T occupant;
+
+        Interval(int end, T occupant) {
+            this.end = end;
+            this.occupant = occupant;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.schoolmanagementsystem.algorithm.scheduling;
+
+import com.schoolmanagementsystem.model.TimeSlot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+
+/**
+ * Sweep-line conflict detection over scheduled items.
+ *
+ * Items only conflict when they need the same resource (a room, a teacher); without a resource
+ * function they all share one. Items are sorted by resource, day and start time and swept once,
+ * keeping the intervals still open in a heap ordered by end. Every item conflicts with exactly
+ * the open intervals left after the expired ones are dropped, so reporting all k conflicting
+ * pairs costs O(n log n + k), and finding whether there is any conflict costs O(n log n).
+ * Overlap is half-open, as in OccupancyTimeline; items without a slot or with an empty slot
+ * are ignored.
+ */
+public final class ScheduleConflicts {
+    private static final int DAYS = TimeSlot.DayOfWeek.values().length;
+    private static final Object SHARED = new Object();
+
+    private ScheduleConflicts() {
+    }
+
+    public static class Conflict<T> {
+        private final T first;
+        private final T second;
+        private final Object resource;
+
+        public Conflict(T first, T second, Object resource) {
+            this.first = first;
+            this.second = second;
+            this.resource = resource;
+        }
+
+        /** The item that starts first (or comes first in the input on equal starts). */
+        public T getFirst() { return first; }
+        public T getSecond() { return second; }
+        /** The resource both items need at once, or null when conflicts were not split by resource. */
+        public Object getResource() { return resource; }
+
+        @Override
+        public String toString() {
+            return first + " <-> " + second + (resource != null ? " (" + resource + ")" : "");
+        }
+    }
+
+    /**
+     * Every pair of items whose slots overlap, ordered by the later item's start time.
+     */
+    public static <T> List<Conflict<T>> findAll(List<T> items, Function<? super T, TimeSlot> slotOf) {
+        return findAll(items, slotOf, item -> SHARED);
+    }
+
+    /**
+     * Every pair of items with overlapping slots and the same resource, grouped by resource and
+     * ordered by the later item's start time. Items whose resource is null never conflict.
+     */
+    public static <T> List<Conflict<T>> findAll(List<T> items, Function<? super T, TimeSlot> slotOf,
+                                                Function<? super T, ?> resourceOf) {
+        Sweep sweep = new Sweep(items, slotOf, resourceOf);
+        List<Conflict<T>> conflicts = new ArrayList<>();
+        PriorityQueue<Integer> open = new PriorityQueue<>(Comparator.comparingInt(i -> sweep.ends[i]));
+        int lane = -1;
+        for (int i : sweep.order) {
+            if (sweep.lanes[i] != lane) {
+                open.clear();
+                lane = sweep.lanes[i];
+            }
+            while (!open.isEmpty() && sweep.ends[open.peek()] <= sweep.starts[i]) {
+                open.poll();
+            }
+            for (int other : open) {
+                Object resource = sweep.resources.get(lane / DAYS);
+                conflicts.add(new Conflict<>(items.get(other), items.get(i), resource == SHARED ? null : resource));
+            }
+            open.add(i);
+        }
+        return conflicts;
+    }
+
+    /**
+     * Whether any two items overlap, without materializing the pairs.
+     */
+    public static <T> boolean hasAny(List<T> items, Function<? super T, TimeSlot> slotOf) {
+        return hasAny(items, slotOf, item -> SHARED);
+    }
+
+    /**
+     * Whether any two items with the same resource overlap.
+     */
+    public static <T> boolean hasAny(List<T> items, Function<? super T, TimeSlot> slotOf,
+                                     Function<? super T, ?> resourceOf) {
+        Sweep sweep = new Sweep(items, slotOf, resourceOf);
+        int lane = -1;
+        int furthestEnd = 0;
+        for (int i : sweep.order) {
+            if (sweep.lanes[i] != lane) {
+                lane = sweep.lanes[i];
+                furthestEnd = 0;
+            } else if (sweep.starts[i] < furthestEnd) {
+                return true;
+            }
+            furthestEnd = Math.max(furthestEnd, sweep.ends[i]);
+        }
+        return false;
+    }
+
+    /**
+     * Items reduced to (lane, start second, end second), where a lane is one day of one resource,
+     * with the indexes of the non-empty ones sorted by lane, start and input position.
+     */
+    private static class Sweep {
+        private final int[] lanes;
+        private final int[] starts;
+        private final int[] ends;
+        private final List<Object> resources = new ArrayList<>();
+        private final Integer[] order;
+
+        <T> Sweep(List<T> items, Function<? super T, TimeSlot> slotOf, Function<? super T, ?> resourceOf) {
+            int n = items.size();
+            lanes = new int[n];
+            starts = new int[n];
+            ends = new int[n];
+            Map<Object, Integer> resourceIndex = new HashMap<>();
+            List<Integer> indexes = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                T item = items.get(i);
+                TimeSlot slot = slotOf.apply(item);
+                if (slot == null || slot.getDayOfWeek() == null || slot.getStartTime() == null || slot.getEndTime() == null) {
+                    continue;
+                }
+                Object resource = resourceOf.apply(item);
+                if (resource == null) {
+                    continue;
+                }
+                int group = resourceIndex.computeIfAbsent(resource, r -> {
+                    resources.add(r);
+                    return resources.size() - 1;
+                });
+                lanes[i] = group * DAYS + slot.getDayOfWeek().ordinal();
+                starts[i] = slot.getStartTime().toSecondOfDay();
+                ends[i] = slot.getEndTime().toSecondOfDay();
+                if (ends[i] > starts[i]) {
+                    indexes.add(i);
+                }
+            }
+            order = indexes.toArray(new Integer[0]);
+            Arrays.sort(order, Comparator.<Integer>comparingInt(i -> lanes[i])
+                    .thenComparingInt(i -> starts[i])
+                    .thenComparingInt(i -> i));
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.schoolmanagementsystem.algorithm.scheduling;
+
+import com.schoolmanagementsystem.algorithm.scheduling.GreedyScheduler.CourseTimeSlot;
+import com.schoolmanagementsystem.model.Course;
+import com.schoolmanagementsystem.model.TimeSlot;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Hard constraints for placing courses: a room holds one class at a time, and so does a teacher.
+ *
+ * Each room and each teacher has its own OccupancyTimeline, so classes in different rooms with
+ * different teachers may run in parallel, and every check is O(log n) in that resource's load.
+ * Slots without a room all count as one shared room; courses without a teacher (teacherId 0
+ * or less) are only constrained by their room.
+ */
+public class ScheduleConstraints {
+    private final Map<String, OccupancyTimeline<CourseTimeSlot>> rooms = new HashMap<>();
+    private final Map<Integer, OccupancyTimeline<CourseTimeSlot>> teachers = new HashMap<>();
+
+    /**
+     * Why the course cannot be placed at the slot, or null when it can.
+     */
+    public String findViolation(Course course, TimeSlot timeSlot) {
+        OccupancyTimeline<CourseTimeSlot> room = rooms.get(roomKey(timeSlot));
+        CourseTimeSlot roomOccupant = room == null ? null : room.findOverlap(timeSlot);
+        if (roomOccupant != null) {
+            return "Room " + roomOccupant.getTimeSlot().getRoom() + " is taken by " + roomOccupant.getCourse().getCourseCode();
+        }
+        Integer teacher = teacherKey(course);
+        OccupancyTimeline<CourseTimeSlot> timeline = teacher == null ? null : teachers.get(teacher);
+        CourseTimeSlot teacherOccupant = timeline == null ? null : timeline.findOverlap(timeSlot);
+        if (teacherOccupant != null) {
+            return "Teacher " + teacher + " is teaching " + teacherOccupant.getCourse().getCourseCode();
+        }
+        return null;
+    }
+
+    public boolean canPlace(Course course, TimeSlot timeSlot) {
+        OccupancyTimeline<CourseTimeSlot> room = rooms.get(roomKey(timeSlot));
+        if (room != null && !room.isFree(timeSlot)) {
+            return false;
+        }
+        Integer teacher = teacherKey(course);
+        OccupancyTimeline<CourseTimeSlot> timeline = teacher == null ? null : teachers.get(teacher);
+        return timeline == null || timeline.isFree(timeSlot);
+    }
+
+    /**
+     * The class holding the slot's room at an overlapping time, or null if the room is free.
+     */
+    public CourseTimeSlot roomOccupant(TimeSlot timeSlot) {
+        OccupancyTimeline<CourseTimeSlot> room = rooms.get(roomKey(timeSlot));
+        return room == null ? null : room.findOverlap(timeSlot);
+    }
+
+    /**
+     * The class the course's teacher gives at an overlapping time, or null if the teacher is free.
+     */
+    public CourseTimeSlot teacherOccupant(Course course, TimeSlot timeSlot) {
+        Integer teacher = teacherKey(course);
+        OccupancyTimeline<CourseTimeSlot> timeline = teacher == null ? null : teachers.get(teacher);
+        return timeline == null ? null : timeline.findOverlap(timeSlot);
+    }
+
+    /**
+     * Books the class's room and teacher. Returns false, booking nothing, if either is busy.
+     */
+    public boolean place(CourseTimeSlot scheduled) {
+        if (!canPlace(scheduled.getCourse(), scheduled.getTimeSlot())) {
+            return false;
+        }
+        TimeSlot timeSlot = scheduled.getTimeSlot();
+        if (!rooms.computeIfAbsent(roomKey(timeSlot), r -> new OccupancyTimeline<>()).occupy(timeSlot, scheduled)) {
+            return false;
+        }
+        Integer teacher = teacherKey(scheduled.getCourse());
+        if (teacher != null) {
+            teachers.computeIfAbsent(teacher, t -> new OccupancyTimeline<>()).occupy(timeSlot, scheduled);
+        }
+        return true;
+    }
+
+    /**
+     * Releases the class's room and teacher booking.
+     */
+    public void remove(CourseTimeSlot scheduled) {
+        TimeSlot timeSlot = scheduled.getTimeSlot();
+        OccupancyTimeline<CourseTimeSlot> room = rooms.get(roomKey(timeSlot));
+        if (room != null && room.findOverlap(timeSlot) == scheduled) {
+            room.release(timeSlot);
+        }
+        Integer teacher = teacherKey(scheduled.getCourse());
+        OccupancyTimeline<CourseTimeSlot> timeline = teacher == null ? null : teachers.get(teacher);
+        if (timeline != null && timeline.findOverlap(timeSlot) == scheduled) {
+            timeline.release(timeSlot);
+        }
+    }
+
+    public void clear() {
+        rooms.clear();
+        teachers.clear();
+    }
+
+    /**
+     * Every pair of classes that share a room or a teacher at overlapping times.
+     */
+    public static List<ScheduleConflicts.Conflict<CourseTimeSlot>> findConflicts(List<CourseTimeSlot> scheduled) {
+        return findConflicts(scheduled, CourseTimeSlot::getCourse, CourseTimeSlot::getTimeSlot);
+    }
+
+    /**
+     * Every pair of items that share a room or a teacher at overlapping times; a pair sharing
+     * both is reported once per resource.
+     */
+    public static <T> List<ScheduleConflicts.Conflict<T>> findConflicts(List<T> items, Function<? super T, Course> courseOf,
+                                                                      Function<? super T, TimeSlot> slotOf) {
+        List<ScheduleConflicts.Conflict<T>> conflicts = ScheduleConflicts.findAll(items, slotOf, roomResource(slotOf));
+        conflicts.addAll(ScheduleConflicts.findAll(items, slotOf, teacherResource(courseOf)));
+        return conflicts;
+    }
+
+    public static boolean hasConflicts(List<CourseTimeSlot> scheduled) {
+        return hasConflicts(scheduled, CourseTimeSlot::getCourse, CourseTimeSlot::getTimeSlot);
+    }
+
+    public static <T> boolean hasConflicts(List<T> items, Function<? super T, Course> courseOf,
+                                           Function<? super T, TimeSlot> slotOf) {
+        return ScheduleConflicts.hasAny(items, slotOf, roomResource(slotOf))
+                || ScheduleConflicts.hasAny(items, slotOf, teacherResource(courseOf));
+    }
+
+    private static <T> Function<T, String> roomResource(Function<? super T, TimeSlot> slotOf) {
+        return item -> "room " + roomKey(slotOf.apply(item));
+    }
+
+    private static <T> Function<T, String> teacherResource(Function<? super T, Course> courseOf) {
+        return item -> {
+            Course course = courseOf.apply(item);
+            Integer teacher = course == null ? null : teacherKey(course);
+            return teacher == null ? null : "teacher " + teacher;
+        };
+    }
+
+    static String roomKey(TimeSlot timeSlot) {
+        return timeSlot.getRoom() == null ? "" : timeSlot.getRoom().trim();
+    }
+
+    static Integer teacherKey(Course course) {
+        return course.getTeacherId() > 0 ? course.getTeacherId() : null;
+    }
+}
@@ -0,0 +1,298 @@
+package com.schoolmanagementsystem.algorithm.scheduling;
+
+import com.schoolmanagementsystem.algorithm.scheduling.GreedyScheduler.CourseTimeSlot;
+import com.schoolmanagementsystem.algorithm.scheduling.GreedyScheduler.ScheduleRequest;
+import com.schoolmanagementsystem.model.Course;
+import com.schoolmanagementsystem.model.TimeSlot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Repairs an existing timetable after a few courses or time slots changed, moving as few
+ * courses as possible instead of scheduling everything again.
+ *
+ * Unchanged assignments are booked into ScheduleConstraints first and stay where they are.
+ * Changed courses keep their slot when it is still valid; otherwise they go to the free slot
+ * with the fewest student clashes. When no slot is free, one settled course blocking a slot
+ * may be moved to another free slot to make room. Courses that still do not fit lose their
+ * slot. Only the resulting moves are reported.
+ */
+public class ScheduleRepair {
+    private static final Logger logger = LoggerFactory.getLogger(ScheduleRepair.class);
+
+    private final List<TimeSlot> availableTimeSlots;
+    private final CourseConflictGraph conflictGraph;
+    private final SlotPeriods periods;
+    private final Map<Integer, Integer> slotIndexById = new HashMap<>();
+
+    /**
+     * @param conflictGraph shared students between courses, or null to ignore student clashes
+     */
+    public ScheduleRepair(List<TimeSlot> availableTimeSlots, CourseConflictGraph conflictGraph) {
+        this.availableTimeSlots = new ArrayList<>(availableTimeSlots);
+        this.availableTimeSlots.sort((ts1, ts2) -> {
+            int dayComparison = ts1.getDayOfWeek().compareTo(ts2.getDayOfWeek());
+            if (dayComparison != 0) {
+                return dayComparison;
+            }
+            return ts1.getEndTime().compareTo(ts2.getEndTime());
+        });
+        this.conflictGraph = conflictGraph;
+        this.periods = new SlotPeriods(this.availableTimeSlots);
+        for (int s = 0; s < this.availableTimeSlots.size(); s++) {
+            slotIndexById.put(this.availableTimeSlots.get(s).getTimeSlotId(), s);
+        }
+    }
+
+    /**
+     * Repairs the timetable given by current (course ID to time slot) around the changed courses.
+     * Unchanged courses without a slot are left unscheduled, and unchanged courses are only moved
+     * when their slot now clashes with an earlier one, or to make room for a changed course.
+     */
+    public Result repair(List<ScheduleRequest> requests, Map<Integer, TimeSlot> current, Set<Integer> changedCourseIds) {
+        Repair repair = new Repair(requests, current);
+        int n = requests.size();
+
+        // Settled assignments first, in request order; ones clashing with earlier ones need repair
+        List<Integer> dirty = new ArrayList<>();
+        for (int r = 0; r < n; r++) {
+            boolean changed = changedCourseIds.contains(requests.get(r).getCourse().getCourseId());
+            if (repair.originalSlot[r] < 0) {
+                if (changed || repair.original[r] != null) {
+                    dirty.add(r);
+                }
+            } else if (changed || !repair.place(r, repair.originalSlot[r])) {
+                dirty.add(r);
+            }
+        }
+
+        // Changed courses keep their slot where still possible, before anything is relocated
+        List<Integer> relocate = new ArrayList<>();
+        for (int r : dirty) {
+            if (repair.originalSlot[r] < 0 || !repair.place(r, repair.originalSlot[r])) {
+                relocate.add(r);
+            }
+        }
+        relocate.sort((r1, r2) -> Integer.compare(requests.get(r2).getPriority(), requests.get(r1).getPriority()));
+        for (int r : relocate) {
+            repair.relocate(r);
+        }
+
+        Result result = repair.result();
+        logger.info("Repaired schedule around {} changed courses: {} moved, {} unplaced",
+                changedCourseIds.size(), result.getMoves().size(), result.getUnplaced().size());
+        return result;
+    }
+
+    private class Repair {
+        private final List<ScheduleRequest> requests;
+        private final ScheduleConstraints constraints = new ScheduleConstraints();
+        private final Map<Integer, Integer> requestOfCourseId = new HashMap<>();
+        private final int[] requestOfIndex;
+        private final int[] courseIndex;
+        private final TimeSlot[] original;
+        private final int[] originalSlot;
+        private final int[] slot;
+        private final CourseTimeSlot[] entries;
+        private final boolean[] moved;
+
+        Repair(List<ScheduleRequest> requests, Map<Integer, TimeSlot> current) {
+            this.requests = requests;
+            int n = requests.size();
+            this.requestOfIndex = new int[conflictGraph == null ? 0 : conflictGraph.courseCount()];
+            Arrays.fill(requestOfIndex, -1);
+            this.courseIndex = new int[n];
+            this.original = new TimeSlot[n];
+            this.originalSlot = new int[n];
+            this.slot = new int[n];
+            this.entries = new CourseTimeSlot[n];
+            this.moved = new boolean[n];
+            Arrays.fill(slot, -1);
+
+            for (int r = 0; r < n; r++) {
+                int courseId = requests.get(r).getCourse().getCourseId();
+                requestOfCourseId.put(courseId, r);
+                courseIndex[r] = conflictGraph == null ? -1 : conflictGraph.indexOf(courseId);
+                if (courseIndex[r] >= 0) {
+                    requestOfIndex[courseIndex[r]] = r;
+                }
+                original[r] = current.get(courseId);
+                Integer index = original[r] == null ? null : slotIndexById.get(original[r].getTimeSlotId());
+                originalSlot[r] = index == null ? -1 : index;
+            }
+        }
+
+        boolean place(int r, int s) {
+            CourseTimeSlot entry = new CourseTimeSlot(requests.get(r).getCourse(), availableTimeSlots.get(s));
+            if (!constraints.place(entry)) {
+                return false;
+            }
+            entries[r] = entry;
+            slot[r] = s;
+            return true;
+        }
+
+        void unplace(int r) {
+            constraints.remove(entries[r]);
+            entries[r] = null;
+            slot[r] = -1;
+        }
+
+        /** Students the course would share with placed neighbours if it ran at slot s. */
+        long clashCost(int r, int s) {
+            int c = courseIndex[r];
+            if (c < 0) {
+                return 0;
+            }
+            int period = periods.periodOf(s);
+            long cost = 0;
+            for (int e = conflictGraph.firstEdge(c); e < conflictGraph.endEdge(c); e++) {
+                int neighbor = requestOfIndex[conflictGraph.neighborAt(e)];
+                if (neighbor >= 0 && slot[neighbor] >= 0 && periods.overlap(period, periods.periodOf(slot[neighbor]))) {
+                    cost += conflictGraph.weightAt(e);
+                }
+            }
+            return cost;
+        }
+
+        /** The free slot for the course with the fewest clashes, preferred slot first on ties, or -1. */
+        int bestFreeSlot(int r, int excluded) {
+            Course course = requests.get(r).getCourse();
+            TimeSlot preferred = requests.get(r).getPreferredTimeSlot();
+            int best = -1;
+            long bestCost = Long.MAX_VALUE;
+            for (int s = 0; s < availableTimeSlots.size(); s++) {
+                if (s == excluded || !constraints.canPlace(course, availableTimeSlots.get(s))) continue;
+                long cost = clashCost(r, s);
+                boolean preferredTie = cost == bestCost && availableTimeSlots.get(s).equals(preferred);
+                if (cost < bestCost || preferredTie) {
+                    best = s;
+                    bestCost = cost;
+                }
+            }
+            return best;
+        }
+
+        void relocate(int r) {
+            moved[r] = true;
+            int direct = bestFreeSlot(r, -1);
+            if (direct >= 0) {
+                place(r, direct);
+                return;
+            }
+
+            // No free slot: try moving the single settled course that blocks a slot
+            Course course = requests.get(r).getCourse();
+            int bestSlot = -1;
+            int bestBlocker = -1;
+            int bestBlockerSlot = -1;
+            long bestCost = Long.MAX_VALUE;
+            for (int s = 0; s < availableTimeSlots.size(); s++) {
+                int blocker = singleBlocker(course, availableTimeSlots.get(s));
+                if (blocker < 0 || moved[blocker]) continue;
+
+                int from = slot[blocker];
+                long before = clashCost(blocker, from);
+                unplace(blocker);
+                if (place(r, s)) {
+                    int target = bestFreeSlot(blocker, from);
+                    if (target >= 0) {
+                        long cost = clashCost(r, s) + clashCost(blocker, target) - before;
+                        if (cost < bestCost) {
+                            bestCost = cost;
+                            bestSlot = s;
+                            bestBlocker = blocker;
+                            bestBlockerSlot = target;
+                        }
+                    }
+                    unplace(r);
+                }
+                place(blocker, from);
+            }
+
+            if (bestSlot < 0) {
+                logger.debug("Could not fit {} back into the schedule", course.getCourseCode());
+                return;
+            }
+            unplace(bestBlocker);
+            place(r, bestSlot);
+            place(bestBlocker, bestBlockerSlot);
+            moved[bestBlocker] = true;
+        }
+
+        /** The one placed request holding the slot's room or the course's teacher, or -1 if none or two. */
+        private int singleBlocker(Course course, TimeSlot timeSlot) {
+            CourseTimeSlot room = constraints.roomOccupant(timeSlot);
+            CourseTimeSlot teacher = constraints.teacherOccupant(course, timeSlot);
+            if (room != null && teacher != null && room != teacher) {
+                return -1;
+            }
+            CourseTimeSlot blocker = room != null ? room : teacher;
+            return blocker == null ? -1 : requestOfCourseId.get(blocker.getCourse().getCourseId());
+        }
+
+        Result result() {
+            List<Move> moves = new ArrayList<>();
+            List<Course> unplaced = new ArrayList<>();
+            for (int r = 0; r < requests.size(); r++) {
+                TimeSlot to = slot[r] < 0 ? null : availableTimeSlots.get(slot[r]);
+                if (to == null && moved[r]) {
+                    unplaced.add(requests.get(r).getCourse());
+                }
+                boolean same = to == null ? original[r] == null
+                        : original[r] != null && original[r].getTimeSlotId() == to.getTimeSlotId();
+                if (!same) {
+                    moves.add(new Move(requests.get(r).getCourse(), original[r], to));
+                }
+            }
+            return new Result(moves, unplaced);
+        }
+    }
+
+    /**
+     * A course changing slot; from is null for a newly placed course, to is null for one that
+     * lost its slot.
+     */
+    public static class Move {
+        private final Course course;
+        private final TimeSlot from;
+        private final TimeSlot to;
+
+        public Move(Course course, TimeSlot from, TimeSlot to) {
+            this.course = course;
+            this.from = from;
+            this.to = to;
+        }
+
+        public Course getCourse() { return course; }
+        public TimeSlot getFrom() { return from; }
+        public TimeSlot getTo() { return to; }
+
+        @Override
+        public String toString() {
+            return course.getCourseCode() + ": " + from + " -> " + to;
+        }
+    }
+
+    public static class Result {
+        private final List<Move> moves;
+        private final List<Course> unplaced;
+
+        public Result(List<Move> moves, List<Course> unplaced) {
+            this.moves = moves;
+            this.unplaced = unplaced;
+        }
+
+        /** Every course whose slot differs from the one it had before the repair. */
+        public List<Move> getMoves() { return moves; }
+        /** Courses that needed a slot and did not get one. */
+        public List<Course> getUnplaced() { return unplaced; }
+    }
+}
@@ -0,0 +1,73 @@
+package com.schoolmanagementsystem.algorithm.scheduling;
+
+import com.schoolmanagementsystem.model.TimeSlot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Groups time slots into periods, the distinct (day, start, end) times regardless of room, and
+ * records which periods overlap, so that student clashes can be checked per period.
+ */
+class SlotPeriods {
+    private final int[] periodOfSlot;
+    private final int[][] overlapping;
+    private final BitSet[] overlaps;
+
+    SlotPeriods(List<TimeSlot> slots) {
+        Map<String, Integer> periodIds = new HashMap<>();
+        List<TimeSlot> periods = new ArrayList<>();
+        this.periodOfSlot = new int[slots.size()];
+        for (int i = 0; i < periodOfSlot.length; i++) {
+            TimeSlot slot = slots.get(i);
+            String key = slot.getDayOfWeek() + " " + slot.getStartTime() + " " + slot.getEndTime();
+            periodOfSlot[i] = periodIds.computeIfAbsent(key, k -> {
+                periods.add(slot);
+                return periods.size() - 1;
+            });
+        }
+
+        int count = periods.size();
+        this.overlapping = new int[count][];
+        this.overlaps = new BitSet[count];
+        for (int p = 0; p < count; p++) {
+            int[] row = new int[count];
+            int length = 0;
+            overlaps[p] = new BitSet(count);
+            for (int q = 0; q < count; q++) {
+                if (overlaps(periods.get(p), periods.get(q))) {
+                    row[length++] = q;
+                    overlaps[p].set(q);
+                }
+            }
+            overlapping[p] = Arrays.copyOf(row, length);
+        }
+    }
+
+    private static boolean overlaps(TimeSlot ts1, TimeSlot ts2) {
+        return ts1.getDayOfWeek() == ts2.getDayOfWeek()
+                && ts1.getStartTime().compareTo(ts2.getEndTime()) < 0
+                && ts2.getStartTime().compareTo(ts1.getEndTime()) < 0;
+    }
+
+    int periodCount() {
+        return overlapping.length;
+    }
+
+    int periodOf(int slot) {
+        return periodOfSlot[slot];
+    }
+
+    /** The periods overlapping period p, p included. */
+    int[] overlapping(int period) {
+        return overlapping[period];
+    }
+
+    boolean overlap(int period, int other) {
+        return overlaps[period].get(other);
+    }
+}
@@ -0,0 +1,184 @@
+package com.schoolmanagementsystem.algorithm.scheduling;
+
+import com.schoolmanagementsystem.algorithm.scheduling.GreedyScheduler.CourseTimeSlot;
+import com.schoolmanagementsystem.algorithm.scheduling.GreedyScheduler.ScheduleRequest;
+import com.schoolmanagementsystem.algorithm.scheduling.GreedyScheduler.ScheduleResult;
+import com.schoolmanagementsystem.model.Course;
+import com.schoolmanagementsystem.model.TimeSlot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Timetabling that keeps courses sharing students apart, as a weighted DSatur colouring of the
+ * CourseConflictGraph onto time slots.
+ *
+ * Slots with the same day, start and end form one period (the colour); rooms only decide how
+ * many courses a period holds. Courses are placed one at a time, always the unplaced course
+ * whose placed neighbours block the most distinct periods, then the one sharing the most
+ * students. It goes to the slot that clashes with the fewest students among its placed
+ * neighbours, subject to ScheduleConstraints (rooms and teachers). On ties the preferred slot
+ * wins, then the first slot in the GreedyScheduler order (earliest end time per day).
+ */
+public class StudentAwareScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(StudentAwareScheduler.class);
+
+    private final List<TimeSlot> availableTimeSlots;
+    private final CourseConflictGraph conflictGraph;
+    private final SlotPeriods periods;
+    private final ScheduleConstraints constraints = new ScheduleConstraints();
+    private final List<CourseTimeSlot> scheduledClasses = new ArrayList<>();
+    private long studentClashes;
+
+    public StudentAwareScheduler(List<TimeSlot> availableTimeSlots, CourseConflictGraph conflictGraph) {
+        this.availableTimeSlots = new ArrayList<>(availableTimeSlots);
+        this.availableTimeSlots.sort((ts1, ts2) -> {
+            int dayComparison = ts1.getDayOfWeek().compareTo(ts2.getDayOfWeek());
+            if (dayComparison != 0) {
+                return dayComparison;
+            }
+            return ts1.getEndTime().compareTo(ts2.getEndTime());
+        });
+        this.conflictGraph = conflictGraph;
+
+        this.periods = new SlotPeriods(this.availableTimeSlots);
+    }
+
+    public List<ScheduleResult> scheduleOptimal(List<ScheduleRequest> requests) {
+        logger.info("Starting student-aware scheduling for {} requests over {} periods",
+                requests.size(), periods.periodCount());
+
+        int n = requests.size();
+        int[] courseIndex = new int[n];
+        int[] requestOfCourse = new int[conflictGraph.courseCount()];
+        Arrays.fill(requestOfCourse, -1);
+        for (int r = 0; r < n; r++) {
+            courseIndex[r] = conflictGraph.indexOf(requests.get(r).getCourse().getCourseId());
+            if (courseIndex[r] >= 0) {
+                requestOfCourse[courseIndex[r]] = r;
+            }
+        }
+
+        int periodCount = periods.periodCount();
+        BitSet[] blockedPeriods = new BitSet[n];
+        int[] saturation = new int[n];
+        int[] placedPeriod = new int[n];
+        Arrays.fill(placedPeriod, -1);
+        boolean[] done = new boolean[n];
+        long[] clashCost = new long[periodCount];
+        int[] touchedPeriods = new int[periodCount];
+        ScheduleResult[] results = new ScheduleResult[n];
+
+        for (int step = 0; step < n; step++) {
+            int next = selectNext(requests, courseIndex, saturation, done);
+            done[next] = true;
+            ScheduleRequest request = requests.get(next);
+            Course course = request.getCourse();
+
+            // Students this course would share a period with, per period, from placed neighbours
+            int touchedCount = 0;
+            int c = courseIndex[next];
+            if (c >= 0) {
+                for (int e = conflictGraph.firstEdge(c); e < conflictGraph.endEdge(c); e++) {
+                    int neighbor = requestOfCourse[conflictGraph.neighborAt(e)];
+                    if (neighbor < 0 || placedPeriod[neighbor] < 0) continue;
+                    for (int p : periods.overlapping(placedPeriod[neighbor])) {
+                        if (clashCost[p] == 0) {
+                            touchedPeriods[touchedCount++] = p;
+                        }
+                        clashCost[p] += conflictGraph.weightAt(e);
+                    }
+                }
+            }
+
+            int best = -1;
+            long bestCost = Long.MAX_VALUE;
+            TimeSlot preferred = request.getPreferredTimeSlot();
+            for (int s = 0; s < availableTimeSlots.size(); s++) {
+                long cost = clashCost[periods.periodOf(s)];
+                TimeSlot slot = availableTimeSlots.get(s);
+                boolean preferredTie = cost == bestCost && preferred != null && slot.equals(preferred);
+                if ((cost < bestCost || preferredTie) && constraints.canPlace(course, slot)) {
+                    best = s;
+                    bestCost = cost;
+                }
+            }
+            for (int t = 0; t < touchedCount; t++) {
+                clashCost[touchedPeriods[t]] = 0;
+            }
+
+            if (best < 0) {
+                logger.debug("Failed to schedule {}: No available time slots", course.getCourseCode());
+                results[next] = new ScheduleResult(course, null, false, "No available time slots");
+                continue;
+            }
+
+            TimeSlot slot = availableTimeSlots.get(best);
+            CourseTimeSlot scheduled = new CourseTimeSlot(course, slot);
+            constraints.place(scheduled);
+            scheduledClasses.add(scheduled);
+            placedPeriod[next] = periods.periodOf(best);
+            studentClashes += bestCost;
+            if (c >= 0) {
+                // Raise the saturation of unplaced neighbours that see a new blocked period
+                for (int e = conflictGraph.firstEdge(c); e < conflictGraph.endEdge(c); e++) {
+                    int neighbor = requestOfCourse[conflictGraph.neighborAt(e)];
+                    if (neighbor < 0 || done[neighbor]) continue;
+                    if (blockedPeriods[neighbor] == null) {
+                        blockedPeriods[neighbor] = new BitSet(periodCount);
+                    }
+                    if (!blockedPeriods[neighbor].get(placedPeriod[next])) {
+                        blockedPeriods[neighbor].set(placedPeriod[next]);
+                        saturation[neighbor]++;
+                    }
+                }
+            }
+
+            String reason = preferred != null && slot.equals(preferred) ? "Scheduled at preferred time" : "Scheduled at alternative time";
+            if (bestCost > 0) {
+                reason += " (" + bestCost + " student clashes)";
+            }
+            results[next] = new ScheduleResult(course, slot, true, reason);
+        }
+
+        logger.info("Student-aware scheduling completed. Successful: {}, Failed: {}, student clashes: {}",
+                scheduledClasses.size(), n - scheduledClasses.size(), studentClashes);
+        return new ArrayList<>(Arrays.asList(results));
+    }
+
+    /**
+     * The unplaced request with the highest saturation, then most shared students, then
+     * highest priority, then earliest in the input.
+     */
+    private int selectNext(List<ScheduleRequest> requests, int[] courseIndex, int[] saturation, boolean[] done) {
+        int best = -1;
+        for (int r = 0; r < requests.size(); r++) {
+            if (done[r]) continue;
+            if (best < 0 || saturation[r] > saturation[best]) {
+                best = r;
+                continue;
+            }
+            if (saturation[r] < saturation[best]) continue;
+            long degree = courseIndex[r] >= 0 ? conflictGraph.weightedDegree(courseIndex[r]) : 0;
+            long bestDegree = courseIndex[best] >= 0 ? conflictGraph.weightedDegree(courseIndex[best]) : 0;
+            if (degree > bestDegree
+                    || (degree == bestDegree && requests.get(r).getPriority() > requests.get(best).getPriority())) {
+                best = r;
+            }
+        }
+        return best;
+    }
+
+    public List<CourseTimeSlot> getScheduledClasses() {
+        return new ArrayList<>(scheduledClasses);
+    }
+
+    /** Students sharing a period between two of their courses, summed over the placed courses. */
+    public long getStudentClashes() {
+        return studentClashes;
+    }
+}
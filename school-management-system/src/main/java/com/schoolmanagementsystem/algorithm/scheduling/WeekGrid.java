@@ -0,0 +1,226 @@
+package com.schoolmanagementsystem.algorithm.scheduling;
+
+import com.schoolmanagementsystem.model.TimeSlot;
+
+import java.time.LocalTime;
+import java.util.Arrays;
+
+/**
+ * Weekly occupancy as a bitmap of 5-minute quanta, Monday 00:00 first: 7 x 288 bits in 32 longs.
+ *
+ * A slot covers the half-open quantum range from its start to its end. That range is exact only
+ * for slots whose times are multiples of the quantum ({@link #isAligned}); other slots are
+ * rounded outwards. Overlap tests, unions and intersections work a word at a time, and occupied
+ * time is a popcount.
+ */
+public final class WeekGrid {
+    public static final int QUANTUM_MINUTES = 5;
+    public static final int QUANTA_PER_DAY = 24 * 60 / QUANTUM_MINUTES;
+    public static final int QUANTA = QUANTA_PER_DAY * TimeSlot.DayOfWeek.values().length;
+    private static final int QUANTUM_SECONDS = QUANTUM_MINUTES * 60;
+    private static final int WORDS = (QUANTA + 63) >>> 6;
+
+    private final long[] words = new long[WORDS];
+
+    public WeekGrid() {
+    }
+
+    public WeekGrid(WeekGrid other) {
+        System.arraycopy(other.words, 0, words, 0, WORDS);
+    }
+
+    /** Whether the slot starts and ends on quantum boundaries, so its range is exact. */
+    public static boolean isAligned(TimeSlot timeSlot) {
+        return isAligned(timeSlot.getStartTime().toSecondOfDay(), timeSlot.getEndTime().toSecondOfDay());
+    }
+
+    static boolean isAligned(int startSecond, int endSecond) {
+        return startSecond % QUANTUM_SECONDS == 0 && endSecond % QUANTUM_SECONDS == 0;
+    }
+
+    /** First quantum of the slot. */
+    public static int fromQuantum(TimeSlot timeSlot) {
+        return fromQuantum(timeSlot.getDayOfWeek().ordinal(), timeSlot.getStartTime().toSecondOfDay());
+    }
+
+    /** Quantum just past the slot. */
+    public static int toQuantum(TimeSlot timeSlot) {
+        return toQuantum(timeSlot.getDayOfWeek().ordinal(), timeSlot.getEndTime().toSecondOfDay());
+    }
+
+    static int fromQuantum(int day, int startSecond) {
+        return day * QUANTA_PER_DAY + startSecond / QUANTUM_SECONDS;
+    }
+
+    static int toQuantum(int day, int endSecond) {
+        return day * QUANTA_PER_DAY + (endSecond + QUANTUM_SECONDS - 1) / QUANTUM_SECONDS;
+    }
+
+    public boolean intersects(TimeSlot timeSlot) {
+        return intersects(fromQuantum(timeSlot), toQuantum(timeSlot));
+    }
+
+    /** Whether any quantum in [from, to) is occupied. */
+    public boolean intersects(int from, int to) {
+        if (from >= to) {
+            return false;
+        }
+        int first = from >>> 6;
+        int last = (to - 1) >>> 6;
+        for (int w = first; w <= last; w++) {
+            if ((words[w] & mask(w, first, last, from, to)) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean intersects(WeekGrid other) {
+        for (int w = 0; w < WORDS; w++) {
+            if ((words[w] & other.words[w]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void set(TimeSlot timeSlot) {
+        set(fromQuantum(timeSlot), toQuantum(timeSlot));
+    }
+
+    /** Occupies every quantum in [from, to). */
+    public void set(int from, int to) {
+        if (from >= to) {
+            return;
+        }
+        int first = from >>> 6;
+        int last = (to - 1) >>> 6;
+        for (int w = first; w <= last; w++) {
+            words[w] |= mask(w, first, last, from, to);
+        }
+    }
+
+    public void clear(TimeSlot timeSlot) {
+        clear(fromQuantum(timeSlot), toQuantum(timeSlot));
+    }
+
+    /** Frees every quantum in [from, to). */
+    public void clear(int from, int to) {
+        if (from >= to) {
+            return;
+        }
+        int first = from >>> 6;
+        int last = (to - 1) >>> 6;
+        for (int w = first; w <= last; w++) {
+            words[w] &= ~mask(w, first, last, from, to);
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(words, 0);
+    }
+
+    /** Adds the other grid's occupied quanta to this one. */
+    public void or(WeekGrid other) {
+        for (int w = 0; w < WORDS; w++) {
+            words[w] |= other.words[w];
+        }
+    }
+
+    /** Keeps only the quanta occupied in both grids. */
+    public void and(WeekGrid other) {
+        for (int w = 0; w < WORDS; w++) {
+            words[w] &= other.words[w];
+        }
+    }
+
+    /** Number of occupied quanta. */
+    public int cardinality() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    public int occupiedMinutes() {
+        return cardinality() * QUANTUM_MINUTES;
+    }
+
+    public boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Start of the first free window of at least the given minutes on the day, starting no
+     * earlier than from (rounded up to a quantum), or null if the day has none.
+     */
+    public LocalTime findFreeWindow(TimeSlot.DayOfWeek day, LocalTime from, int minutes) {
+        int length = Math.max(1, (minutes + QUANTUM_MINUTES - 1) / QUANTUM_MINUTES);
+        int dayStart = day.ordinal() * QUANTA_PER_DAY;
+        int dayEnd = dayStart + QUANTA_PER_DAY;
+        int start = nextClear(toQuantum(day.ordinal(), from.toSecondOfDay()), dayEnd);
+        while (start + length <= dayEnd) {
+            int occupied = nextSet(start, start + length);
+            if (occupied < 0) {
+                return LocalTime.ofSecondOfDay((long) (start - dayStart) * QUANTUM_SECONDS);
+            }
+            start = nextClear(occupied, dayEnd);
+        }
+        return null;
+    }
+
+    /** First occupied quantum in [from, to), or -1. */
+    private int nextSet(int from, int to) {
+        if (from >= to) {
+            return -1;
+        }
+        int w = from >>> 6;
+        long word = words[w] & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                int bit = (w << 6) + Long.numberOfTrailingZeros(word);
+                return bit < to ? bit : -1;
+            }
+            if (++w > (to - 1) >>> 6) {
+                return -1;
+            }
+            word = words[w];
+        }
+    }
+
+    /** First free quantum in [from, to), or to if there is none. */
+    private int nextClear(int from, int to) {
+        if (from >= to) {
+            return to;
+        }
+        int w = from >>> 6;
+        long word = ~words[w] & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                return Math.min(to, (w << 6) + Long.numberOfTrailingZeros(word));
+            }
+            if (++w > (to - 1) >>> 6) {
+                return to;
+            }
+            word = ~words[w];
+        }
+    }
+
+    /** Bits of word w inside [from, to), where first and last are the words of from and to - 1. */
+    private static long mask(int w, int first, int last, int from, int to) {
+        long mask = -1L;
+        if (w == first) {
+            mask &= -1L << from;
+        }
+        if (w == last) {
+            mask &= -1L >>> -to;
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,335 @@
+package com.schoolmanagementsystem.algorithm.search;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory n-gram index over person names ("first last") for substring and prefix search.
+ *
+ * Names are compared case- and accent-insensitively, like MySQL's default utf8mb4 collation.
+ * Every distinct 1-, 2- and 3-character gram of a name points to a posting list of the names
+ * containing it, and grams at the start of a word also to a word-start list. A query reads the
+ * shortest posting list among its grams (the query itself when it has at most 3 characters) and
+ * checks each candidate, so the work is bounded by the rarest gram rather than by the number of
+ * names.
+ *
+ * Results are ranked: exact full name, exact first or last name, full-name prefix, prefix of a
+ * later word, then any other substring; ties go to the shorter name, then to last name and first
+ * name order. Removed names stay in the posting lists as tombstones until they outnumber the live
+ * ones, when the index is rebuilt. All methods are synchronized.
+ */
+public class NameIndex {
+    private static final int MAX_GRAM = 3;
+    private static final int COMPACT_THRESHOLD = 1024;
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    // Flag on the key of a gram found at the start of a word
+    private static final long WORD_START = 1L << 62;
+    private static final Postings EMPTY = new Postings();
+
+    private static final int EXACT = 0;
+    private static final int EXACT_WORD = 1;
+    private static final int PREFIX = 2;
+    private static final int WORD_PREFIX = 3;
+    private static final int SUBSTRING = 4;
+    private static final int NO_MATCH = 5;
+
+    private final Map<Integer, Integer> docOfId = new HashMap<>();
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private int[] ids = new int[16];
+    // Normalized "first last", null once removed
+    private String[] texts = new String[16];
+    private int[] firstLengths = new int[16];
+    // Normalized "last first", for ordering ties
+    private String[] sortKeys = new String[16];
+    private int docCount;
+    private int removedCount;
+
+    /**
+     * Lower case, accents stripped, whitespace collapsed to single spaces and trimmed.
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String stripped = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return WHITESPACE.matcher(stripped.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    /**
+     * Adds the name under the given ID, replacing any name the ID had.
+     */
+    public synchronized void put(int id, String firstName, String lastName) {
+        removeDoc(id);
+        String first = normalize(firstName);
+        String last = normalize(lastName);
+        addDoc(id, first, last);
+        compactIfNeeded();
+    }
+
+    public synchronized boolean remove(int id) {
+        boolean removed = removeDoc(id);
+        compactIfNeeded();
+        return removed;
+    }
+
+    public synchronized int size() {
+        return docOfId.size();
+    }
+
+    /**
+     * IDs of the names containing the term, best first, at most limit of them. An empty term
+     * matches every name.
+     */
+    public synchronized int[] search(String term, int limit) {
+        return query(normalize(term), limit, SUBSTRING);
+    }
+
+    /**
+     * IDs of the names with a word starting with the term, best first, at most limit of them.
+     */
+    public synchronized int[] searchPrefix(String term, int limit) {
+        return query(normalize(term), limit, WORD_PREFIX);
+    }
+
+    private int[] query(String term, int limit, int worstTier) {
+        if (limit <= 0) {
+            return new int[0];
+        }
+        Postings candidates = candidates(term, worstTier <= WORD_PREFIX);
+        if (candidates == EMPTY) {
+            return new int[0];
+        }
+        int candidateCount = candidates == null ? docCount : candidates.size;
+
+        // Bounded max-heap of (doc, tier) holding the best matches so far, worst at the root
+        int capacity = Math.min(limit, Math.max(candidateCount, 1));
+        int[] heapDocs = new int[capacity];
+        int[] heapTiers = new int[capacity];
+        int size = 0;
+        for (int c = 0; c < candidateCount; c++) {
+            int doc = candidates == null ? c : candidates.docs[c];
+            if (texts[doc] == null) continue;
+            int tier = tier(doc, term);
+            if (tier > worstTier) continue;
+            if (size < capacity) {
+                heapDocs[size] = doc;
+                heapTiers[size] = tier;
+                siftUp(heapDocs, heapTiers, size++);
+            } else if (compare(doc, tier, heapDocs[0], heapTiers[0]) < 0) {
+                heapDocs[0] = doc;
+                heapTiers[0] = tier;
+                siftDown(heapDocs, heapTiers, size);
+            }
+        }
+
+        int[] result = new int[size];
+        for (int i = size - 1; i >= 0; i--) {
+            result[i] = ids[heapDocs[0]];
+            heapDocs[0] = heapDocs[i];
+            heapTiers[0] = heapTiers[i];
+            siftDown(heapDocs, heapTiers, i);
+        }
+        return result;
+    }
+
+    /**
+     * Docs that may match the term, or null for every doc. Prefix queries of up to 3 characters
+     * read the word-start postings, which hold exactly the docs with a word starting with the term.
+     */
+    private Postings candidates(String term, boolean prefixOnly) {
+        if (term.isEmpty()) {
+            return null;
+        }
+        if (term.length() <= MAX_GRAM) {
+            long key = gram(term, 0, term.length());
+            Postings list = postings.get(prefixOnly ? key | WORD_START : key);
+            return list == null ? EMPTY : list;
+        }
+        Postings shortest = null;
+        for (int i = 0; i + MAX_GRAM <= term.length(); i++) {
+            long key = gram(term, i, MAX_GRAM);
+            Postings list = postings.get(prefixOnly && i == 0 ? key | WORD_START : key);
+            if (list == null) {
+                return EMPTY;
+            }
+            if (shortest == null || list.size < shortest.size) {
+                shortest = list;
+            }
+        }
+        return shortest;
+    }
+
+    private int tier(int doc, String term) {
+        String text = texts[doc];
+        if (term.isEmpty()) {
+            return PREFIX;
+        }
+        if (text.equals(term)) {
+            return EXACT;
+        }
+        int firstLength = firstLengths[doc];
+        boolean firstEquals = firstLength == term.length() && text.startsWith(term);
+        boolean lastEquals = text.length() - firstLength - 1 == term.length() && text.endsWith(term);
+        if (firstEquals || lastEquals) {
+            return EXACT_WORD;
+        }
+        int index = text.indexOf(term);
+        if (index < 0) {
+            return NO_MATCH;
+        }
+        if (index == 0) {
+            return PREFIX;
+        }
+        for (; index >= 0; index = text.indexOf(term, index + 1)) {
+            if (text.charAt(index - 1) == ' ') {
+                return WORD_PREFIX;
+            }
+        }
+        return SUBSTRING;
+    }
+
+    /** Negative when the first match ranks better. */
+    private int compare(int doc, int tier, int otherDoc, int otherTier) {
+        if (tier != otherTier) {
+            return Integer.compare(tier, otherTier);
+        }
+        int lengths = Integer.compare(texts[doc].length(), texts[otherDoc].length());
+        if (lengths != 0) {
+            return lengths;
+        }
+        int names = sortKeys[doc].compareTo(sortKeys[otherDoc]);
+        return names != 0 ? names : Integer.compare(ids[doc], ids[otherDoc]);
+    }
+
+    private void siftUp(int[] docs, int[] tiers, int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (compare(docs[i], tiers[i], docs[parent], tiers[parent]) <= 0) break;
+            swap(docs, tiers, i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int[] docs, int[] tiers, int size) {
+        int i = 0;
+        while (true) {
+            int worst = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < size && compare(docs[left], tiers[left], docs[worst], tiers[worst]) > 0) worst = left;
+            if (right < size && compare(docs[right], tiers[right], docs[worst], tiers[worst]) > 0) worst = right;
+            if (worst == i) return;
+            swap(docs, tiers, i, worst);
+            i = worst;
+        }
+    }
+
+    private static void swap(int[] docs, int[] tiers, int i, int j) {
+        int doc = docs[i];
+        docs[i] = docs[j];
+        docs[j] = doc;
+        int tier = tiers[i];
+        tiers[i] = tiers[j];
+        tiers[j] = tier;
+    }
+
+    private void addDoc(int id, String first, String last) {
+        if (docCount == ids.length) {
+            int capacity = docCount * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            texts = Arrays.copyOf(texts, capacity);
+            firstLengths = Arrays.copyOf(firstLengths, capacity);
+            sortKeys = Arrays.copyOf(sortKeys, capacity);
+        }
+        int doc = docCount++;
+        String text = last.isEmpty() ? first : first.isEmpty() ? last : first + " " + last;
+        ids[doc] = id;
+        texts[doc] = text;
+        firstLengths[doc] = last.isEmpty() || first.isEmpty() ? (first.isEmpty() ? -1 : text.length()) : first.length();
+        sortKeys[doc] = last + " " + first;
+        docOfId.put(id, doc);
+
+        // Distinct grams of the name, plus those starting a word flagged as such; docs are added
+        // in increasing order, so postings stay sorted
+        long[] grams = new long[text.length() * MAX_GRAM * 2];
+        int gramCount = 0;
+        for (int i = 0; i < text.length(); i++) {
+            boolean wordStart = i == 0 || text.charAt(i - 1) == ' ';
+            for (int n = 1; n <= MAX_GRAM && i + n <= text.length(); n++) {
+                long gram = gram(text, i, n);
+                grams[gramCount++] = gram;
+                if (wordStart) {
+                    grams[gramCount++] = gram | WORD_START;
+                }
+            }
+        }
+        Arrays.sort(grams, 0, gramCount);
+        for (int g = 0; g < gramCount; g++) {
+            if (g > 0 && grams[g] == grams[g - 1]) continue;
+            postings.computeIfAbsent(grams[g], k -> new Postings()).add(doc);
+        }
+    }
+
+    private boolean removeDoc(int id) {
+        Integer doc = docOfId.remove(id);
+        if (doc == null) {
+            return false;
+        }
+        texts[doc] = null;
+        sortKeys[doc] = null;
+        removedCount++;
+        return true;
+    }
+
+    private void compactIfNeeded() {
+        if (removedCount < COMPACT_THRESHOLD || removedCount < docOfId.size()) {
+            return;
+        }
+        int[] oldIds = ids;
+        String[] oldTexts = texts;
+        int[] oldFirstLengths = firstLengths;
+        int oldCount = docCount;
+        int capacity = Math.max(16, docOfId.size() * 2);
+        ids = new int[capacity];
+        texts = new String[capacity];
+        firstLengths = new int[capacity];
+        sortKeys = new String[capacity];
+        docCount = 0;
+        removedCount = 0;
+        docOfId.clear();
+        postings.clear();
+        for (int doc = 0; doc < oldCount; doc++) {
+            String text = oldTexts[doc];
+            if (text == null) continue;
+            int firstLength = oldFirstLengths[doc];
+            String first = firstLength < 0 ? "" : text.substring(0, firstLength);
+            String last = firstLength < 0 ? text : firstLength >= text.length() ? "" : text.substring(firstLength + 1);
+            addDoc(oldIds[doc], first, last);
+        }
+    }
+
+    private static long gram(String text, int from, int length) {
+        long key = (long) length << 48;
+        for (int i = 0; i < length; i++) {
+            key |= (long) text.charAt(from + i) << (32 - 16 * i);
+        }
+        return key;
+    }
+
+    private static class Postings {
+        private int[] docs = new int[4];
+        private int size;
+
+        void add(int doc) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            docs[size++] = doc;
+        }
+    }
+}
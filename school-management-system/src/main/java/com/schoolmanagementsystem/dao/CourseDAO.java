@@ -7,7 +7,9 @@ import org.slf4j.LoggerFactory;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Data Access Object for Course entity
@@ -15,6 +17,11 @@ import java.util.List;
 public class CourseDAO {
     private static final Logger logger = LoggerFactory.getLogger(CourseDAO.class);
 
+    private static final String SELECT_SQL = "SELECT c.*, CONCAT(t.firstName, ' ', t.lastName) as teacher_name " +
+            "FROM Course c LEFT JOIN Teacher t ON c.teacherId = t.teacherId ";
+    private static final String PAGE_SQL = SELECT_SQL + "WHERE c.courseId > ? ORDER BY c.courseId LIMIT ?";
+    private static final String STREAM_SQL = SELECT_SQL + "ORDER BY c.courseId";
+
     public List<Course> findAll() throws SQLException {
         List<Course> courses = new ArrayList<>();
         // Corrected column names: t.firstName, t.lastName
@@ -35,7 +42,72 @@ public class CourseDAO {
         return courses;
     }
 
+    /**
+     * Up to limit courses with courseId greater than afterId, in ID order. Pass the last ID of a
+     * page as afterId to read the next one; start from 0.
+     */
+    public List<Course> findPage(int afterId, int limit) throws SQLException {
+        List<Course> page = new ArrayList<>();
+        try (Connection conn = DatabaseManager.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(PAGE_SQL)) {
+            stmt.setInt(1, afterId);
+            stmt.setInt(2, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    page.add(mapResultSetToCourse(rs));
+                }
+            }
+        }
+        logger.debug("Found {} courses with ID after {}", page.size(), afterId);
+        return page;
+    }
+
+    /**
+     * Every course in ID order, read through a server-side cursor so memory stays bounded.
+     * The stream holds a connection until it is closed.
+     */
+    public Stream<Course> stream() throws SQLException {
+        return ResultSetStreams.stream(STREAM_SQL, this::mapResultSetToCourse);
+    }
+
+    /**
+     * The course with the given ID, served from a cache shared by all CourseDAOs. Each call
+     * returns a fresh copy, so callers may modify it.
+     */
     public Course findById(int courseId) throws SQLException {
+        return copyOf(Caches.BY_ID.get(courseId, this::loadById));
+    }
+
+    /**
+     * The course with the given code, served from a cache shared by all CourseDAOs. Each call
+     * returns a fresh copy, so callers may modify it.
+     */
+    public Course findByCourseCode(String courseCode) throws SQLException {
+        return copyOf(Caches.BY_CODE.get(courseCode, this::loadByCourseCode));
+    }
+
+    /**
+     * Hit, miss and eviction counters of the by-ID and by-code caches.
+     */
+    public static List<EntityCache.Stats> getCacheStats() {
+        return Arrays.asList(Caches.BY_ID.getStats(), Caches.BY_CODE.getStats());
+    }
+
+    /**
+     * Empties both caches; also used when a teacher changes, since courses carry the teacher's name.
+     */
+    static void invalidateCaches() {
+        Caches.BY_ID.invalidateAll();
+        Caches.BY_CODE.invalidateAll();
+    }
+
+    private static void invalidateCaches(int courseId) {
+        Caches.BY_ID.invalidate(courseId);
+        // The code of the changed course may not be known, so drop every code entry
+        Caches.BY_CODE.invalidateAll();
+    }
+
+    private Course loadById(int courseId) throws SQLException {
         // Corrected column names: t.firstName, t.lastName
         String sql = "SELECT c.*, CONCAT(t.firstName, ' ', t.lastName) as teacher_name " +
                 "FROM Course c LEFT JOIN Teacher t ON c.teacherId = t.teacherId " +
@@ -56,7 +128,7 @@ public class CourseDAO {
         return null;
     }
 
-    public Course findByCourseCode(String courseCode) throws SQLException {
+    private Course loadByCourseCode(String courseCode) throws SQLException {
         // Corrected column names: t.firstName, t.lastName
         String sql = "SELECT c.*, CONCAT(t.firstName, ' ', t.lastName) as teacher_name " +
                 "FROM Course c LEFT JOIN Teacher t ON c.teacherId = t.teacherId " +
@@ -108,6 +180,7 @@ public class CourseDAO {
             }
         }
 
+        CourseScheduleDAO.invalidateStatistics();
         logger.info("Created new course: {}", course);
         return course;
     }
@@ -128,6 +201,8 @@ public class CourseDAO {
             }
         }
 
+        invalidateCaches(course.getCourseId());
+        CourseScheduleDAO.invalidateStatistics();
         logger.info("Updated course: {}", course);
         return course;
     }
@@ -141,6 +216,8 @@ public class CourseDAO {
             stmt.setInt(1, courseId);
 
             int rowsAffected = stmt.executeUpdate();
+            invalidateCaches(courseId);
+            CourseScheduleDAO.invalidateStatistics();
             logger.info("Deleted course with ID: {}", courseId);
             return rowsAffected > 0;
         }
@@ -178,6 +255,22 @@ public class CourseDAO {
         }
     }
 
+    private static Course copyOf(Course course) {
+        if (course == null) {
+            return null;
+        }
+        Course copy = new Course(course.getCourseId(), course.getCourseCode(), course.getCourseName(),
+                course.getDescription(), course.getCredits(), course.getCapacity(), course.getTeacherId());
+        copy.setTeacherName(course.getTeacherName());
+        return copy;
+    }
+
+    // Created on first use, so that loading the class does not read the configuration
+    private static class Caches {
+        static final EntityCache<Integer, Course> BY_ID = EntityCache.fromProperties("courses by ID");
+        static final EntityCache<String, Course> BY_CODE = EntityCache.fromProperties("courses by code");
+    }
+
     private Course mapResultSetToCourse(ResultSet rs) throws SQLException {
         Course course = new Course();
         course.setCourseId(rs.getInt("courseId"));
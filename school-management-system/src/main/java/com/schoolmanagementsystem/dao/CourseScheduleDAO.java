@@ -7,13 +7,54 @@ import org.slf4j.LoggerFactory;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
 /**
  * Data Access Object for CourseSchedule entity
  */
 public class CourseScheduleDAO {
     private static final Logger logger = LoggerFactory.getLogger(CourseScheduleDAO.class);
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    private static final String SELECT_SQL = "SELECT cs.*, c.courseName as courseName, ts.dayOfWeek, ts.startTime, ts.endTime, ts.room " +
+            "FROM CourseSchedule cs " +
+            "JOIN Course c ON cs.courseId = c.courseId " +
+            "JOIN TimeSlot ts ON cs.timeSlotId = ts.timeSlotId ";
+    private static final String PAGE_SQL = SELECT_SQL + "WHERE cs.scheduleId > ? ORDER BY cs.scheduleId LIMIT ?";
+    private static final String STREAM_SQL = SELECT_SQL + "ORDER BY cs.scheduleId";
+
+    // Overlapping pairs of schedules, counted once per shared room and once per shared teacher,
+    // as in ScheduleConstraints.findConflicts: rooms compare trimmed and case-sensitive, a null
+    // room counts as one shared room, and teachers only count when teacherId > 0
+    private static final String CONFLICT_COUNT_SQL =
+            "SELECT COALESCE(SUM(COALESCE(TRIM(ta.room), '') = BINARY COALESCE(TRIM(tb.room), '')) " +
+            "+ SUM(ca.teacherId > 0 AND ca.teacherId = cb.teacherId), 0) " +
+            "FROM CourseSchedule a " +
+            "JOIN TimeSlot ta ON a.timeSlotId = ta.timeSlotId " +
+            "JOIN Course ca ON a.courseId = ca.courseId " +
+            "JOIN CourseSchedule b ON a.scheduleId < b.scheduleId " +
+            "JOIN TimeSlot tb ON b.timeSlotId = tb.timeSlotId AND tb.dayOfWeek = ta.dayOfWeek " +
+            "AND tb.startTime < ta.endTime AND ta.startTime < tb.endTime " +
+            "JOIN Course cb ON b.courseId = cb.courseId " +
+            "WHERE ta.startTime < ta.endTime AND tb.startTime < tb.endTime";
+
+    private static final String STATISTICS_SQL =
+            "SELECT (SELECT COUNT(*) FROM Course) AS totalCourses, " +
+            "(SELECT COUNT(*) FROM TimeSlot) AS totalTimeSlots, " +
+            "(SELECT COUNT(*) FROM CourseSchedule) AS scheduledCourses, " +
+            "(SELECT COALESCE(SUM(GREATEST(TIME_TO_SEC(endTime) - TIME_TO_SEC(startTime), 0)), 0) " +
+            "FROM TimeSlot) AS offeredSeconds, " +
+            "(SELECT COALESCE(SUM(GREATEST(TIME_TO_SEC(endTime) - TIME_TO_SEC(startTime), 0)), 0) " +
+            "FROM TimeSlot WHERE timeSlotId IN (SELECT timeSlotId FROM CourseSchedule)) AS bookedSeconds, " +
+            "(" + CONFLICT_COUNT_SQL + ") AS conflictCount";
+
+    // Bumped by every write that can change the statistics; the cached copy is only valid for
+    // the version it was read at
+    private static final AtomicLong writeVersion = new AtomicLong();
+    private static volatile CachedStatistics cachedStatistics;
 
     public List<CourseSchedule> findAll() throws SQLException {
         List<CourseSchedule> schedules = new ArrayList<>();
@@ -36,6 +77,34 @@ public class CourseScheduleDAO {
         return schedules;
     }
 
+    /**
+     * Up to limit course schedules with scheduleId greater than afterId, in ID order. Pass the last ID of a
+     * page as afterId to read the next one; start from 0.
+     */
+    public List<CourseSchedule> findPage(int afterId, int limit) throws SQLException {
+        List<CourseSchedule> page = new ArrayList<>();
+        try (Connection conn = DatabaseManager.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(PAGE_SQL)) {
+            stmt.setInt(1, afterId);
+            stmt.setInt(2, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    page.add(mapResultSetToCourseSchedule(rs));
+                }
+            }
+        }
+        logger.debug("Found {} course schedules with ID after {}", page.size(), afterId);
+        return page;
+    }
+
+    /**
+     * Every course schedule in ID order, read through a server-side cursor so memory stays bounded.
+     * The stream holds a connection until it is closed.
+     */
+    public Stream<CourseSchedule> stream() throws SQLException {
+        return ResultSetStreams.stream(STREAM_SQL, this::mapResultSetToCourseSchedule);
+    }
+
     public CourseSchedule findById(int scheduleId) throws SQLException {
         // Corrected table and column names: CourseSchedule, scheduleId
         String sql = "SELECT cs.*, c.courseName as courseName, ts.dayOfWeek, ts.startTime, ts.endTime, ts.room " +
@@ -110,6 +179,7 @@ public class CourseScheduleDAO {
                 }
             }
         }
+        invalidateStatistics();
         logger.info("Created new course schedule: {}", schedule);
         return schedule;
     }
@@ -129,6 +199,7 @@ public class CourseScheduleDAO {
                 throw new SQLException("Updating course schedule failed, no rows affected.");
             }
         }
+        invalidateStatistics();
         logger.info("Updated course schedule: {}", schedule);
         return schedule;
     }
@@ -143,11 +214,171 @@ public class CourseScheduleDAO {
             stmt.setInt(1, scheduleId);
 
             int rowsAffected = stmt.executeUpdate();
+            invalidateStatistics();
             logger.info("Deleted course schedule with ID: {}", scheduleId);
             return rowsAffected > 0;
         }
     }
 
+    /**
+     * Replaces the whole timetable in one transaction: a single DELETE followed by batched
+     * INSERTs of at most DEFAULT_BATCH_SIZE rows, then one commit. Other connections keep seeing
+     * the previous timetable until the commit, and any failure rolls back to it. The schedules
+     * receive their generated IDs once the commit succeeds.
+     */
+    public int replaceAll(Collection<CourseSchedule> schedules) throws SQLException {
+        String insertSql = "INSERT INTO CourseSchedule (courseId, timeSlotId) VALUES (?, ?)";
+
+        int deleted;
+        int[] generatedIds = new int[schedules.size()];
+        try (Connection conn = DatabaseManager.getInstance().getConnection();
+             PreparedStatement deleteStmt = conn.prepareStatement("DELETE FROM CourseSchedule");
+             PreparedStatement insertStmt = conn.prepareStatement(insertSql, Statement.RETURN_GENERATED_KEYS)) {
+
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                deleted = deleteStmt.executeUpdate();
+                int generated = 0;
+                int batched = 0;
+                for (CourseSchedule schedule : schedules) {
+                    setCourseScheduleParameters(insertStmt, schedule);
+                    insertStmt.addBatch();
+                    if (++batched == DEFAULT_BATCH_SIZE) {
+                        generated = executeInsertBatch(insertStmt, generatedIds, generated, batched);
+                        batched = 0;
+                    }
+                }
+                if (batched > 0) {
+                    generated = executeInsertBatch(insertStmt, generatedIds, generated, batched);
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        }
+
+        invalidateStatistics();
+        int i = 0;
+        for (CourseSchedule schedule : schedules) {
+            schedule.setScheduleId(generatedIds[i++]);
+        }
+        logger.info("Replaced {} course schedules with {} in one transaction", deleted, schedules.size());
+        return schedules.size();
+    }
+
+    /**
+     * Writes a partial timetable change in one transaction: batched UPDATEs for schedules that
+     * already have an ID, batched INSERTs for new ones and batched DELETEs of the schedules of
+     * the removed courses. New schedules receive their generated IDs once the commit succeeds.
+     * Returns the number of rows written.
+     */
+    public int applyChanges(Collection<CourseSchedule> saved, Collection<Integer> removedCourseIds) throws SQLException {
+        String updateSql = "UPDATE CourseSchedule SET courseId = ?, timeSlotId = ? WHERE scheduleId = ?";
+        String insertSql = "INSERT INTO CourseSchedule (courseId, timeSlotId) VALUES (?, ?)";
+        String deleteSql = "DELETE FROM CourseSchedule WHERE courseId = ?";
+
+        List<CourseSchedule> inserted = new ArrayList<>();
+        int[] generatedIds = new int[saved.size()];
+        int rows = 0;
+        try (Connection conn = DatabaseManager.getInstance().getConnection();
+             PreparedStatement updateStmt = conn.prepareStatement(updateSql);
+             PreparedStatement insertStmt = conn.prepareStatement(insertSql, Statement.RETURN_GENERATED_KEYS);
+             PreparedStatement deleteStmt = conn.prepareStatement(deleteSql)) {
+
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                // Deletes first, so freed (courseId, timeSlotId) pairs can be reused below
+                int batched = 0;
+                for (int courseId : removedCourseIds) {
+                    deleteStmt.setInt(1, courseId);
+                    deleteStmt.addBatch();
+                    if (++batched == DEFAULT_BATCH_SIZE) {
+                        rows += sum(deleteStmt.executeBatch());
+                        batched = 0;
+                    }
+                }
+                if (batched > 0) {
+                    rows += sum(deleteStmt.executeBatch());
+                }
+
+                int updated = 0;
+                for (CourseSchedule schedule : saved) {
+                    if (schedule.getScheduleId() == 0) {
+                        inserted.add(schedule);
+                        continue;
+                    }
+                    setCourseScheduleParameters(updateStmt, schedule);
+                    updateStmt.setInt(3, schedule.getScheduleId());
+                    updateStmt.addBatch();
+                    if (++updated % DEFAULT_BATCH_SIZE == 0) {
+                        updateStmt.executeBatch();
+                    }
+                }
+                if (updated % DEFAULT_BATCH_SIZE != 0) {
+                    updateStmt.executeBatch();
+                }
+                rows += updated;
+
+                int generated = 0;
+                batched = 0;
+                for (CourseSchedule schedule : inserted) {
+                    setCourseScheduleParameters(insertStmt, schedule);
+                    insertStmt.addBatch();
+                    if (++batched == DEFAULT_BATCH_SIZE) {
+                        generated = executeInsertBatch(insertStmt, generatedIds, generated, batched);
+                        batched = 0;
+                    }
+                }
+                if (batched > 0) {
+                    generated = executeInsertBatch(insertStmt, generatedIds, generated, batched);
+                }
+                rows += generated;
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        }
+
+        invalidateStatistics();
+        for (int i = 0; i < inserted.size(); i++) {
+            inserted.get(i).setScheduleId(generatedIds[i]);
+        }
+        logger.info("Applied {} course schedule changes in one transaction: {} saved, {} courses removed",
+                rows, saved.size(), removedCourseIds.size());
+        return rows;
+    }
+
+    private static int sum(int[] counts) {
+        int total = 0;
+        for (int count : counts) {
+            // Rewritten batches report SUCCESS_NO_INFO (-2) instead of a row count
+            total += Math.max(count, 0);
+        }
+        return total;
+    }
+
+    private int executeInsertBatch(PreparedStatement insertStmt, int[] generatedIds, int generated, int batchSize)
+            throws SQLException {
+        insertStmt.executeBatch();
+        try (ResultSet generatedKeys = insertStmt.getGeneratedKeys()) {
+            for (int i = 0; i < batchSize; i++) {
+                if (!generatedKeys.next()) {
+                    throw new SQLException("Batch insert of course schedules failed, not all IDs obtained.");
+                }
+                generatedIds[generated++] = generatedKeys.getInt(1);
+            }
+        }
+        return generated;
+    }
+
     public boolean deleteByCourseId(int courseId) throws SQLException {
         // Added for removing schedules linked to a course
         String sql = "DELETE FROM CourseSchedule WHERE courseId = ?";
@@ -157,12 +388,50 @@ public class CourseScheduleDAO {
 
             stmt.setInt(1, courseId);
             int rowsAffected = stmt.executeUpdate();
+            invalidateStatistics();
             logger.info("Deleted {} schedules for courseId: {}", rowsAffected, courseId);
             return rowsAffected > 0;
         }
     }
 
 
+    /**
+     * Course, time slot and schedule counts, booked slot time and the number of room and teacher
+     * conflicts, computed by the database in one query on one connection.
+     */
+    public ScheduleStatistics getStatistics() throws SQLException {
+        try (Connection conn = DatabaseManager.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(STATISTICS_SQL);
+             ResultSet rs = stmt.executeQuery()) {
+            rs.next();
+            return new ScheduleStatistics(rs.getInt("totalCourses"), rs.getInt("totalTimeSlots"),
+                    rs.getInt("scheduledCourses"), rs.getLong("offeredSeconds"), rs.getLong("bookedSeconds"),
+                    rs.getInt("conflictCount"));
+        }
+    }
+
+    /**
+     * Like {@link #getStatistics()}, but reuses the last result until a schedule, course or time
+     * slot is written through a DAO in this process. Writes by other clients are not seen until then.
+     */
+    public ScheduleStatistics getCachedStatistics() throws SQLException {
+        long version = writeVersion.get();
+        CachedStatistics cached = cachedStatistics;
+        if (cached != null && cached.version == version) {
+            return cached.statistics;
+        }
+        ScheduleStatistics statistics = getStatistics();
+        cachedStatistics = new CachedStatistics(version, statistics);
+        return statistics;
+    }
+
+    /**
+     * Drops the cached statistics; called after every write that can change them.
+     */
+    public static void invalidateStatistics() {
+        writeVersion.incrementAndGet();
+    }
+
     private void setCourseScheduleParameters(PreparedStatement stmt, CourseSchedule schedule) throws SQLException {
         stmt.setInt(1, schedule.getCourseId());
         stmt.setInt(2, schedule.getTimeSlotId());
@@ -184,4 +453,47 @@ public class CourseScheduleDAO {
 
         return schedule;
     }
+
+    /**
+     * Aggregate figures returned by {@link #getStatistics()}.
+     */
+    public static class ScheduleStatistics {
+        private final int totalCourses;
+        private final int totalTimeSlots;
+        private final int scheduledCourses;
+        private final long offeredSeconds;
+        private final long bookedSeconds;
+        private final int conflictCount;
+
+        public ScheduleStatistics(int totalCourses, int totalTimeSlots, int scheduledCourses,
+                                  long offeredSeconds, long bookedSeconds, int conflictCount) {
+            this.totalCourses = totalCourses;
+            this.totalTimeSlots = totalTimeSlots;
+            this.scheduledCourses = scheduledCourses;
+            this.offeredSeconds = offeredSeconds;
+            this.bookedSeconds = bookedSeconds;
+            this.conflictCount = conflictCount;
+        }
+
+        public int getTotalCourses() { return totalCourses; }
+        public int getTotalTimeSlots() { return totalTimeSlots; }
+        /** Schedule rows, one per scheduled course. */
+        public int getScheduledCourses() { return scheduledCourses; }
+        /** Total length of all time slots. */
+        public long getOfferedSeconds() { return offeredSeconds; }
+        /** Total length of the time slots holding at least one course. */
+        public long getBookedSeconds() { return bookedSeconds; }
+        /** Overlapping schedule pairs, once per shared room and once per shared teacher. */
+        public int getConflictCount() { return conflictCount; }
+    }
+
+    private static final class CachedStatistics {
+        private final long version;
+        private final ScheduleStatistics statistics;
+
+        CachedStatistics(long version, ScheduleStatistics statistics) {
+            this.version = version;
+            this.statistics = statistics;
+        }
+    }
 }
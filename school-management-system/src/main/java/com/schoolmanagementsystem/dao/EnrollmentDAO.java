@@ -5,9 +5,18 @@ import com.schoolmanagementsystem.util.DatabaseManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.charset.StandardCharsets;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.stream.Stream;
 
 /**
  * Data Access Object for Enrollment entity
@@ -15,6 +24,40 @@ import java.util.List;
 public class EnrollmentDAO {
     private static final Logger logger = LoggerFactory.getLogger(EnrollmentDAO.class);
 
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    private static final String INSERT_SQL =
+            "INSERT INTO Enrollment (studentId, courseId, enrollmentDate, grade) VALUES (?, ?, ?, ?)";
+    private static final String UPDATE_SQL =
+            "UPDATE Enrollment SET studentId = ?, courseId = ?, enrollmentDate = ?, grade = ? WHERE enrollmentId = ?";
+    private static final String FIND_PAIR_SQL =
+            "SELECT enrollmentId, studentId, courseId FROM Enrollment WHERE enrollmentId = ?";
+
+    private static final String SELECT_SQL = "SELECT e.*, " +
+            "CONCAT(s.firstName, ' ', s.lastName) as studentName, " +
+            "c.courseName as courseName " +
+            "FROM Enrollment e " +
+            "JOIN Student s ON e.studentId = s.studentId " +
+            "JOIN Course c ON e.courseId = c.courseId ";
+    private static final String PAGE_SQL = SELECT_SQL + "WHERE e.enrollmentId > ? ORDER BY e.enrollmentId LIMIT ?";
+    private static final String STREAM_SQL = SELECT_SQL + "ORDER BY e.enrollmentId";
+    private static final String PAIRS_STREAM_SQL = "SELECT enrollmentId, studentId, courseId FROM Enrollment ORDER BY enrollmentId";
+
+    // Shared by every EnrollmentDAO instance, since panels and services each create their own
+    private static final List<ChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Registers a listener that is told about every enrollment written through any EnrollmentDAO,
+     * after the change has been committed.
+     */
+    public static void addChangeListener(ChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public static void removeChangeListener(ChangeListener listener) {
+        listeners.remove(listener);
+    }
+
     public List<Enrollment> findAll() throws SQLException {
         List<Enrollment> enrollments = new ArrayList<>();
         String sql = "SELECT e.*, " +
@@ -37,6 +80,42 @@ public class EnrollmentDAO {
         return enrollments;
     }
 
+    /**
+     * Up to limit enrollments with enrollmentId greater than afterId, in ID order. Pass the last ID of a
+     * page as afterId to read the next one; start from 0.
+     */
+    public List<Enrollment> findPage(int afterId, int limit) throws SQLException {
+        List<Enrollment> page = new ArrayList<>();
+        try (Connection conn = DatabaseManager.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(PAGE_SQL)) {
+            stmt.setInt(1, afterId);
+            stmt.setInt(2, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    page.add(mapResultSetToEnrollment(rs));
+                }
+            }
+        }
+        logger.debug("Found {} enrollments with ID after {}", page.size(), afterId);
+        return page;
+    }
+
+    /**
+     * Every enrollment in ID order, read through a server-side cursor so memory stays bounded.
+     * The stream holds a connection until it is closed.
+     */
+    public Stream<Enrollment> stream() throws SQLException {
+        return ResultSetStreams.stream(STREAM_SQL, this::mapResultSetToEnrollment);
+    }
+
+    /**
+     * Passes the student/course pair of every enrollment to the action, in ID order, through a
+     * server-side cursor so memory stays bounded. Names, dates and grades are not loaded.
+     */
+    public void forEachPair(Consumer<? super Enrollment> action) throws SQLException {
+        ResultSetStreams.forEach(PAIRS_STREAM_SQL, this::mapResultSetToPair, action);
+    }
+
     public Enrollment findById(int enrollmentId) throws SQLException {
         String sql = "SELECT e.*, " +
                 "CONCAT(s.firstName, ' ', s.lastName) as studentName, " +
@@ -108,6 +187,70 @@ public class EnrollmentDAO {
         return enrollments;
     }
 
+    /**
+     * Student/course pairs of the enrollments with afterId < enrollmentId <= upToId, in ID order.
+     * Names, dates and grades are not loaded.
+     */
+    public List<Enrollment> findPairsInRange(int afterId, int upToId) throws SQLException {
+        List<Enrollment> enrollments = new ArrayList<>();
+        String sql = "SELECT enrollmentId, studentId, courseId FROM Enrollment " +
+                "WHERE enrollmentId > ? AND enrollmentId <= ? ORDER BY enrollmentId";
+
+        try (Connection conn = DatabaseManager.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, afterId);
+            stmt.setInt(2, upToId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    enrollments.add(mapResultSetToPair(rs));
+                }
+            }
+        }
+        logger.debug("Found {} enrollments with ID in ({}, {}]", enrollments.size(), afterId, upToId);
+        return enrollments;
+    }
+
+    /**
+     * Row count, highest ID and pair checksum of the Enrollment table, plus row counts, highest
+     * IDs and content checksums of Student and Course, in one round trip. Comparing this with the
+     * state a cache was built from tells whether other clients have changed the tables since; the
+     * content checksums also catch edits such as a renamed student or a new course capacity.
+     */
+    public SyncState getSyncState() throws SQLException {
+        String sql = "SELECT COUNT(*) AS enrollmentCount, " +
+                "COALESCE(MAX(enrollmentId), 0) AS maxEnrollmentId, " +
+                "BIT_XOR(CRC32(CONCAT(studentId, ':', courseId))) AS pairChecksum, " +
+                "(SELECT COUNT(*) FROM Student) AS studentCount, " +
+                "(SELECT COALESCE(MAX(studentId), 0) FROM Student) AS maxStudentId, " +
+                "(SELECT BIT_XOR(CRC32(CONCAT_WS(':', studentId, firstName, lastName, email, " +
+                "dateOfBirth, address, phoneNumber))) FROM Student) AS studentChecksum, " +
+                "(SELECT COUNT(*) FROM Course) AS courseCount, " +
+                "(SELECT COALESCE(MAX(courseId), 0) FROM Course) AS maxCourseId, " +
+                "(SELECT BIT_XOR(CRC32(CONCAT_WS(':', courseId, courseCode, courseName, description, " +
+                "credits, capacity, teacherId))) FROM Course) AS courseChecksum " +
+                "FROM Enrollment";
+
+        try (Connection conn = DatabaseManager.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            rs.next();
+            return new SyncState(rs.getInt("enrollmentCount"), rs.getInt("maxEnrollmentId"),
+                    rs.getLong("pairChecksum"), rs.getInt("studentCount"), rs.getInt("maxStudentId"),
+                    rs.getLong("studentChecksum"), rs.getInt("courseCount"), rs.getInt("maxCourseId"),
+                    rs.getLong("courseChecksum"));
+        }
+    }
+
+    /**
+     * Checksum of one student/course pair, matching CRC32(CONCAT(studentId, ':', courseId)) in
+     * MySQL. XOR-ing it over all rows gives the pairChecksum of {@link #getSyncState()}.
+     */
+    public static long pairChecksum(int studentId, int courseId) {
+        CRC32 crc = new CRC32();
+        crc.update((studentId + ":" + courseId).getBytes(StandardCharsets.US_ASCII));
+        return crc.getValue();
+    }
+
     public Enrollment save(Enrollment enrollment) throws SQLException {
         if (enrollment.getEnrollmentId() == 0) {
             return insert(enrollment);
@@ -117,10 +260,8 @@ public class EnrollmentDAO {
     }
 
     private Enrollment insert(Enrollment enrollment) throws SQLException {
-        String sql = "INSERT INTO Enrollment (studentId, courseId, enrollmentDate, grade) VALUES (?, ?, ?, ?)";
-
         try (Connection conn = DatabaseManager.getInstance().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+             PreparedStatement stmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
 
             setEnrollmentParameters(stmt, enrollment);
 
@@ -138,15 +279,18 @@ public class EnrollmentDAO {
             }
         }
         logger.info("Created new enrollment: {}", enrollment);
+        fireInserted(enrollment);
         return enrollment;
     }
 
     private Enrollment update(Enrollment enrollment) throws SQLException {
-        String sql = "UPDATE Enrollment SET studentId = ?, courseId = ?, enrollmentDate = ?, grade = ? WHERE enrollmentId = ?";
-
+        Enrollment previous = null;
         try (Connection conn = DatabaseManager.getInstance().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(UPDATE_SQL)) {
 
+            if (!listeners.isEmpty()) {
+                previous = findPair(conn, enrollment.getEnrollmentId());
+            }
             setEnrollmentParameters(stmt, enrollment);
             stmt.setInt(5, enrollment.getEnrollmentId());
 
@@ -157,20 +301,258 @@ public class EnrollmentDAO {
             }
         }
         logger.info("Updated enrollment: {}", enrollment);
+        fireUpdated(previous, enrollment);
         return enrollment;
     }
 
+    public BatchResult saveAll(Collection<Enrollment> enrollments) throws SQLException {
+        return saveAll(enrollments, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Saves enrollments in JDBC batches of at most chunkSize rows, committing once per chunk.
+     * New enrollments receive their generated IDs. Rows the database rejects (for example a
+     * duplicate studentId/courseId pair) are reported in the result instead of failing the load.
+     */
+    public BatchResult saveAll(Collection<Enrollment> enrollments, int chunkSize) throws SQLException {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+
+        BatchResult result = new BatchResult();
+        if (enrollments.isEmpty()) {
+            return result;
+        }
+
+        List<Enrollment> chunk = new ArrayList<>(Math.min(chunkSize, enrollments.size()));
+        try (Connection conn = DatabaseManager.getInstance().getConnection();
+             PreparedStatement insertStmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS);
+             PreparedStatement updateStmt = conn.prepareStatement(UPDATE_SQL)) {
+
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                for (Enrollment enrollment : enrollments) {
+                    chunk.add(enrollment);
+                    if (chunk.size() == chunkSize) {
+                        saveChunk(conn, insertStmt, updateStmt, chunk, result);
+                        chunk.clear();
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    saveChunk(conn, insertStmt, updateStmt, chunk, result);
+                }
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        }
+
+        logger.info("Batch saved {} enrollments, {} failed", result.getSavedCount(), result.getFailures().size());
+        return result;
+    }
+
+    private void saveChunk(Connection conn, PreparedStatement insertStmt, PreparedStatement updateStmt,
+                           List<Enrollment> chunk, BatchResult result) throws SQLException {
+        List<Enrollment> inserts = new ArrayList<>();
+        List<Enrollment> updates = new ArrayList<>();
+        for (Enrollment enrollment : chunk) {
+            if (enrollment.getEnrollmentId() == 0) {
+                setEnrollmentParameters(insertStmt, enrollment);
+                insertStmt.addBatch();
+                inserts.add(enrollment);
+            } else {
+                setEnrollmentParameters(updateStmt, enrollment);
+                updateStmt.setInt(5, enrollment.getEnrollmentId());
+                updateStmt.addBatch();
+                updates.add(enrollment);
+            }
+        }
+
+        try {
+            Map<Integer, Enrollment> previous = listeners.isEmpty() || updates.isEmpty()
+                    ? Collections.emptyMap() : findPairs(conn, updates);
+            int[] generatedIds = new int[inserts.size()];
+            if (!inserts.isEmpty()) {
+                insertStmt.executeBatch();
+                try (ResultSet generatedKeys = insertStmt.getGeneratedKeys()) {
+                    for (int i = 0; i < generatedIds.length; i++) {
+                        if (!generatedKeys.next()) {
+                            throw new SQLException("Batch insert of enrollments failed, not all IDs obtained.");
+                        }
+                        generatedIds[i] = generatedKeys.getInt(1);
+                    }
+                }
+            }
+            if (!updates.isEmpty()) {
+                int[] updateCounts = updateStmt.executeBatch();
+                for (int count : updateCounts) {
+                    if (count == 0) {
+                        throw new BatchUpdateException("Updating enrollment failed, no rows affected.", updateCounts);
+                    }
+                }
+            }
+            conn.commit();
+
+            for (int i = 0; i < generatedIds.length; i++) {
+                inserts.get(i).setEnrollmentId(generatedIds[i]);
+                fireInserted(inserts.get(i));
+            }
+            for (Enrollment enrollment : updates) {
+                fireUpdated(previous.get(enrollment.getEnrollmentId()), enrollment);
+            }
+            result.savedCount += chunk.size();
+        } catch (BatchUpdateException e) {
+            conn.rollback();
+            insertStmt.clearBatch();
+            updateStmt.clearBatch();
+            logger.warn("Batch of {} enrollments rejected ({}), retrying row by row", chunk.size(), e.getMessage());
+            saveChunkRowByRow(conn, insertStmt, updateStmt, chunk, result);
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        }
+    }
+
+    /**
+     * Fallback for a chunk containing bad rows. A failed single-row statement only rolls back
+     * that statement in InnoDB, so the remaining rows of the chunk still commit together.
+     */
+    private void saveChunkRowByRow(Connection conn, PreparedStatement insertStmt, PreparedStatement updateStmt,
+                                   List<Enrollment> chunk, BatchResult result) throws SQLException {
+        List<Enrollment> inserted = new ArrayList<>();
+        List<Enrollment> updated = new ArrayList<>();
+        List<Enrollment> previous = new ArrayList<>();
+        int saved = 0;
+        try {
+            for (Enrollment enrollment : chunk) {
+                try {
+                    if (enrollment.getEnrollmentId() == 0) {
+                        setEnrollmentParameters(insertStmt, enrollment);
+                        insertStmt.executeUpdate();
+                        try (ResultSet generatedKeys = insertStmt.getGeneratedKeys()) {
+                            if (!generatedKeys.next()) {
+                                throw new SQLException("Creating enrollment failed, no ID obtained.");
+                            }
+                            enrollment.setEnrollmentId(generatedKeys.getInt(1));
+                            inserted.add(enrollment);
+                        }
+                    } else {
+                        Enrollment before = listeners.isEmpty() ? null : findPair(conn, enrollment.getEnrollmentId());
+                        setEnrollmentParameters(updateStmt, enrollment);
+                        updateStmt.setInt(5, enrollment.getEnrollmentId());
+                        if (updateStmt.executeUpdate() == 0) {
+                            throw new SQLException("Updating enrollment failed, no rows affected.");
+                        }
+                        updated.add(enrollment);
+                        previous.add(before);
+                    }
+                    saved++;
+                } catch (SQLTransactionRollbackException e) {
+                    throw e;
+                } catch (SQLException e) {
+                    logger.debug("Enrollment rejected: {} ({})", enrollment, e.getMessage());
+                    result.failures.add(new RowFailure(enrollment, e));
+                }
+            }
+            conn.commit();
+            result.savedCount += saved;
+            inserted.forEach(this::fireInserted);
+            for (int i = 0; i < updated.size(); i++) {
+                fireUpdated(previous.get(i), updated.get(i));
+            }
+        } catch (SQLException e) {
+            conn.rollback();
+            for (Enrollment enrollment : inserted) {
+                enrollment.setEnrollmentId(0);
+            }
+            throw e;
+        }
+    }
+
     public boolean delete(int enrollmentId) throws SQLException {
         String sql = "DELETE FROM Enrollment WHERE enrollmentId = ?";
 
+        Enrollment deleted = null;
+        int rowsAffected;
         try (Connection conn = DatabaseManager.getInstance().getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
+            if (!listeners.isEmpty()) {
+                deleted = findPair(conn, enrollmentId);
+            }
             stmt.setInt(1, enrollmentId);
 
-            int rowsAffected = stmt.executeUpdate();
+            rowsAffected = stmt.executeUpdate();
             logger.info("Deleted enrollment with ID: {}, rows affected: {}", enrollmentId, rowsAffected);
-            return rowsAffected > 0;
+        }
+        if (rowsAffected > 0 && deleted != null) {
+            fireDeleted(deleted);
+        }
+        return rowsAffected > 0;
+    }
+
+    /**
+     * Current student/course pair of an enrollment, read on the caller's connection so that it
+     * sees the row as it is before the caller's pending write.
+     */
+    private Enrollment findPair(Connection conn, int enrollmentId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(FIND_PAIR_SQL)) {
+            stmt.setInt(1, enrollmentId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? mapResultSetToPair(rs) : null;
+            }
+        }
+    }
+
+    private Map<Integer, Enrollment> findPairs(Connection conn, List<Enrollment> enrollments) throws SQLException {
+        StringBuilder sql = new StringBuilder("SELECT enrollmentId, studentId, courseId FROM Enrollment WHERE enrollmentId IN (");
+        for (int i = 0; i < enrollments.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(')');
+
+        Map<Integer, Enrollment> pairs = new HashMap<>();
+        try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            for (int i = 0; i < enrollments.size(); i++) {
+                stmt.setInt(i + 1, enrollments.get(i).getEnrollmentId());
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Enrollment pair = mapResultSetToPair(rs);
+                    pairs.put(pair.getEnrollmentId(), pair);
+                }
+            }
+        }
+        return pairs;
+    }
+
+    private void fireInserted(Enrollment enrollment) {
+        for (ChangeListener listener : listeners) {
+            try {
+                listener.enrollmentInserted(enrollment);
+            } catch (RuntimeException e) {
+                logger.warn("Enrollment change listener failed", e);
+            }
+        }
+    }
+
+    private void fireUpdated(Enrollment previous, Enrollment enrollment) {
+        for (ChangeListener listener : listeners) {
+            try {
+                listener.enrollmentUpdated(previous, enrollment);
+            } catch (RuntimeException e) {
+                logger.warn("Enrollment change listener failed", e);
+            }
+        }
+    }
+
+    private void fireDeleted(Enrollment enrollment) {
+        for (ChangeListener listener : listeners) {
+            try {
+                listener.enrollmentDeleted(enrollment);
+            } catch (RuntimeException e) {
+                logger.warn("Enrollment change listener failed", e);
+            }
         }
     }
 
@@ -210,4 +592,101 @@ public class EnrollmentDAO {
 
         return enrollment;
     }
+
+    private Enrollment mapResultSetToPair(ResultSet rs) throws SQLException {
+        return new Enrollment(rs.getInt("enrollmentId"), rs.getInt("studentId"), rs.getInt("courseId"), null, null);
+    }
+
+    /**
+     * Notified after enrollment writes have been committed. Listeners run on the writing thread.
+     */
+    public interface ChangeListener {
+        void enrollmentInserted(Enrollment enrollment);
+
+        /**
+         * @param previous the student/course pair before the update, or null if it could not be read
+         */
+        void enrollmentUpdated(Enrollment previous, Enrollment enrollment);
+
+        /**
+         * @param enrollment the student/course pair of the deleted row
+         */
+        void enrollmentDeleted(Enrollment enrollment);
+    }
+
+    /**
+     * Table fingerprint returned by {@link #getSyncState()}.
+     */
+    public static class SyncState {
+        private final int enrollmentCount;
+        private final int maxEnrollmentId;
+        private final long pairChecksum;
+        private final int studentCount;
+        private final int maxStudentId;
+        private final long studentChecksum;
+        private final int courseCount;
+        private final int maxCourseId;
+        private final long courseChecksum;
+
+        public SyncState(int enrollmentCount, int maxEnrollmentId, long pairChecksum,
+                         int studentCount, int maxStudentId, long studentChecksum,
+                         int courseCount, int maxCourseId, long courseChecksum) {
+            this.enrollmentCount = enrollmentCount;
+            this.maxEnrollmentId = maxEnrollmentId;
+            this.pairChecksum = pairChecksum;
+            this.studentCount = studentCount;
+            this.maxStudentId = maxStudentId;
+            this.studentChecksum = studentChecksum;
+            this.courseCount = courseCount;
+            this.maxCourseId = maxCourseId;
+            this.courseChecksum = courseChecksum;
+        }
+
+        public int getEnrollmentCount() { return enrollmentCount; }
+        public int getMaxEnrollmentId() { return maxEnrollmentId; }
+        public long getPairChecksum() { return pairChecksum; }
+        public int getStudentCount() { return studentCount; }
+        public int getMaxStudentId() { return maxStudentId; }
+        public long getStudentChecksum() { return studentChecksum; }
+        public int getCourseCount() { return courseCount; }
+        public int getMaxCourseId() { return maxCourseId; }
+        public long getCourseChecksum() { return courseChecksum; }
+    }
+
+    /**
+     * Outcome of a saveAll call: how many rows were written and which ones were rejected.
+     */
+    public static class BatchResult {
+        private int savedCount;
+        private final List<RowFailure> failures = new ArrayList<>();
+
+        public int getSavedCount() { return savedCount; }
+        public List<RowFailure> getFailures() { return Collections.unmodifiableList(failures); }
+        public boolean hasFailures() { return !failures.isEmpty(); }
+    }
+
+    public static class RowFailure {
+        private final Enrollment enrollment;
+        private final SQLException cause;
+
+        public RowFailure(Enrollment enrollment, SQLException cause) {
+            this.enrollment = enrollment;
+            this.cause = cause;
+        }
+
+        public Enrollment getEnrollment() { return enrollment; }
+        public SQLException getCause() { return cause; }
+
+        /**
+         * True when the row violated a unique key, e.g. the student is already enrolled in the course.
+         */
+        public boolean isDuplicate() {
+            return cause.getErrorCode() == 1062; // MySQL ER_DUP_ENTRY
+        }
+
+        @Override
+        public String toString() {
+            return enrollment + ": " + cause.getMessage();
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,154 @@
+package com.schoolmanagementsystem.dao;
+
+import com.schoolmanagementsystem.util.DatabaseManager;
+
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Bounded read-through cache for DAO lookups: least recently used entries are evicted beyond
+ * maximumSize, and entries older than the time-to-live are reloaded.
+ *
+ * Loads run outside the lock. A load that overlaps an invalidation is returned to its caller
+ * but not stored, so a write is never undone by a read that started before it. Missing rows
+ * (null) are not cached.
+ */
+public class EntityCache<K, V> {
+
+    @FunctionalInterface
+    public interface Loader<K, V> {
+        V load(K key) throws SQLException;
+    }
+
+    private final String name;
+    private final int maximumSize;
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long generation;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * @param ttlMillis time to live of an entry; 0 or less keeps entries until evicted or invalidated
+     */
+    public EntityCache(String name, int maximumSize, long ttlMillis) {
+        this.name = name;
+        this.maximumSize = Math.max(1, maximumSize);
+        this.ttlNanos = ttlMillis > 0 ? ttlMillis * 1_000_000 : 0;
+    }
+
+    /**
+     * A cache sized by cache.entity.maxSize (default 1000 entries) and cache.entity.ttlSeconds
+     * (default 300) from application.properties.
+     */
+    public static <K, V> EntityCache<K, V> fromProperties(String name) {
+        DatabaseManager databaseManager = DatabaseManager.getInstance();
+        int maximumSize = Integer.parseInt(databaseManager.getProperty("cache.entity.maxSize", "1000").trim());
+        long ttlSeconds = Long.parseLong(databaseManager.getProperty("cache.entity.ttlSeconds", "300").trim());
+        return new EntityCache<>(name, maximumSize, ttlSeconds * 1000);
+    }
+
+    public V get(K key, Loader<K, V> loader) throws SQLException {
+        long loadGeneration;
+        synchronized (this) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && !entry.isExpired(System.nanoTime())) {
+                hits++;
+                return entry.value;
+            }
+            if (entry != null) {
+                entries.remove(key);
+                evictions++;
+            }
+            misses++;
+            loadGeneration = generation;
+        }
+
+        V value = loader.load(key);
+        if (value != null) {
+            synchronized (this) {
+                if (generation == loadGeneration) {
+                    entries.put(key, new Entry<>(value, ttlNanos == 0 ? 0 : System.nanoTime() + ttlNanos));
+                    evictOverflow();
+                }
+            }
+        }
+        return value;
+    }
+
+    public synchronized void invalidate(K key) {
+        generation++;
+        entries.remove(key);
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        entries.clear();
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats(name, entries.size(), hits, misses, evictions);
+    }
+
+    private void evictOverflow() {
+        Iterator<K> eldest = entries.keySet().iterator();
+        while (entries.size() > maximumSize) {
+            eldest.next();
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    private static class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return expiresAt != 0 && now - expiresAt >= 0;
+        }
+    }
+
+    /**
+     * Counters since the cache was created. Evictions include entries dropped for age as well
+     * as for size, but not invalidations.
+     */
+    public static class Stats {
+        private final String name;
+        private final int size;
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+
+        public Stats(String name, int size, long hits, long misses, long evictions) {
+            this.name = name;
+            this.size = size;
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+        }
+
+        public String getName() { return name; }
+        public int getSize() { return size; }
+        public long getHits() { return hits; }
+        public long getMisses() { return misses; }
+        public long getEvictions() { return evictions; }
+
+        public double getHitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 0.0 : (double) hits / requests;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: size %d, hits %d, misses %d, evictions %d, hit rate %.1f%%",
+                    name, size, hits, misses, evictions, getHitRate() * 100);
+        }
+    }
+}
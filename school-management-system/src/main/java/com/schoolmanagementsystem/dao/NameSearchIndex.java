@@ -0,0 +1,210 @@
+package com.schoolmanagementsystem.dao;
+
+import com.schoolmanagementsystem.algorithm.search.NameIndex;
+import com.schoolmanagementsystem.util.DatabaseManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Name search over a table with firstName and lastName columns, answered from a {@link NameIndex}
+ * instead of a LIKE scan. The index is built on first use from a streaming read of the IDs and
+ * names, kept current by the owning DAO's writes, and rebuilt once older than
+ * search.index.maxAgeSeconds (default 600; 0 never) to pick up other clients' writes.
+ * Matching rows are then read by primary key, in rank order.
+ *
+ * Rebuilds run outside the lock: an expired index keeps answering while a background thread
+ * loads its replacement, and writes made meanwhile are applied to the old index and replayed
+ * onto the new one before it is swapped in. Only the very first build makes searches wait.
+ */
+final class NameSearchIndex {
+    private static final Logger logger = LoggerFactory.getLogger(NameSearchIndex.class);
+    private static final int FETCH_CHUNK = 500;
+
+    private final String table;
+    private final String idColumn;
+    private final String loadSql;
+    private NameIndex index;
+    private long builtAt;
+    // Writes seen while a build is running, replayed onto its result; null when not building
+    private List<PendingWrite> pendingWrites;
+
+    NameSearchIndex(String table, String idColumn) {
+        this.table = table;
+        this.idColumn = idColumn;
+        this.loadSql = "SELECT " + idColumn + ", firstName, lastName FROM " + table + " ORDER BY " + idColumn;
+    }
+
+    /**
+     * Rows whose "first last" name contains the term, or with a word starting with it when
+     * prefixOnly is set, best match first and at most limit of them.
+     */
+    <T> List<T> search(String term, int limit, boolean prefixOnly, ResultSetStreams.RowMapper<T> mapper)
+            throws SQLException {
+        NameIndex current = index();
+        int[] ids = prefixOnly ? current.searchPrefix(term, limit) : current.search(term, limit);
+        return fetch(ids, mapper);
+    }
+
+    synchronized void put(int id, String firstName, String lastName) {
+        if (index != null) {
+            index.put(id, firstName, lastName);
+        }
+        if (pendingWrites != null) {
+            pendingWrites.add(new PendingWrite(id, firstName, lastName, false));
+        }
+    }
+
+    synchronized void remove(int id) {
+        if (index != null) {
+            index.remove(id);
+        }
+        if (pendingWrites != null) {
+            pendingWrites.add(new PendingWrite(id, null, null, true));
+        }
+    }
+
+    private NameIndex index() throws SQLException {
+        synchronized (this) {
+            if (index != null) {
+                if (pendingWrites == null && isExpired(System.nanoTime())) {
+                    startBuild();
+                    Thread rebuild = new Thread(this::rebuildInBackground, "name-index-" + table);
+                    rebuild.setDaemon(true);
+                    rebuild.start();
+                }
+                return index;
+            }
+            // First use: one caller builds while any others wait for it
+            while (pendingWrites != null) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException("Interrupted while waiting for the " + table + " name index", e);
+                }
+                if (index != null) {
+                    return index;
+                }
+            }
+            startBuild();
+        }
+        return build();
+    }
+
+    private void startBuild() {
+        pendingWrites = new ArrayList<>();
+    }
+
+    private void rebuildInBackground() {
+        try {
+            build();
+        } catch (SQLException | RuntimeException e) {
+            logger.warn("Could not rebuild the {} name index, keeping the current one", table, e);
+        }
+    }
+
+    /** Loads a new index without holding the lock, then replays pending writes and swaps it in. */
+    private NameIndex build() throws SQLException {
+        long start = System.nanoTime();
+        NameIndex loaded = new NameIndex();
+        try {
+            ResultSetStreams.forEach(loadSql, rs -> new PendingWrite(rs.getInt(1), rs.getString(2), rs.getString(3), false),
+                    row -> row.applyTo(loaded));
+        } catch (SQLException | RuntimeException e) {
+            synchronized (this) {
+                pendingWrites = null;
+                // A failed rebuild is retried after another full interval, a failed first build on the next search
+                builtAt = System.nanoTime();
+                notifyAll();
+            }
+            throw e;
+        }
+        synchronized (this) {
+            for (PendingWrite write : pendingWrites) {
+                write.applyTo(loaded);
+            }
+            pendingWrites = null;
+            index = loaded;
+            builtAt = start;
+            notifyAll();
+        }
+        logger.info("Indexed {} names from {} in {} ms", loaded.size(), table, (System.nanoTime() - start) / 1_000_000);
+        return loaded;
+    }
+
+    private boolean isExpired(long now) {
+        long maxAgeSeconds = Long.parseLong(
+                DatabaseManager.getInstance().getProperty("search.index.maxAgeSeconds", "600").trim());
+        return maxAgeSeconds > 0 && now - builtAt >= maxAgeSeconds * 1_000_000_000L;
+    }
+
+    private <T> List<T> fetch(int[] ids, ResultSetStreams.RowMapper<T> mapper) throws SQLException {
+        if (ids.length == 0) {
+            return Collections.emptyList();
+        }
+        Map<Integer, T> rowsById = new HashMap<>(ids.length * 2);
+        try (Connection conn = DatabaseManager.getInstance().getConnection()) {
+            for (int from = 0; from < ids.length; from += FETCH_CHUNK) {
+                int to = Math.min(ids.length, from + FETCH_CHUNK);
+                StringBuilder sql = new StringBuilder("SELECT * FROM ").append(table)
+                        .append(" WHERE ").append(idColumn).append(" IN (");
+                for (int i = from; i < to; i++) {
+                    sql.append(i == from ? "?" : ", ?");
+                }
+                sql.append(')');
+                try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+                    for (int i = from; i < to; i++) {
+                        stmt.setInt(i - from + 1, ids[i]);
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            rowsById.put(rs.getInt(idColumn), mapper.map(rs));
+                        }
+                    }
+                }
+            }
+        }
+
+        // Rows deleted by another client since the index was built are skipped
+        List<T> rows = new ArrayList<>(rowsById.size());
+        for (int id : ids) {
+            T row = rowsById.get(id);
+            if (row != null) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    private static class PendingWrite {
+        private final int id;
+        private final String firstName;
+        private final String lastName;
+        private final boolean removed;
+
+        PendingWrite(int id, String firstName, String lastName, boolean removed) {
+            this.id = id;
+            this.firstName = firstName;
+            this.lastName = lastName;
+            this.removed = removed;
+        }
+
+        void applyTo(NameIndex target) {
+            if (removed) {
+                target.remove(id);
+            } else {
+                target.put(id, firstName, lastName);
+            }
+        }
+    }
+}
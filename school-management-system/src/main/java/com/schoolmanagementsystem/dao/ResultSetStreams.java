@@ -0,0 +1,121 @@
+package com.schoolmanagementsystem.dao;
+
+import com.schoolmanagementsystem.util.DatabaseManager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Streams query results through a MySQL server-side cursor (useCursorFetch with a positive
+ * fetch size), so that only one fetch of rows is held in memory whatever the table size.
+ *
+ * The returned stream owns its connection, statement and result set until it is closed, so
+ * callers must close it, typically with try-with-resources. Read errors surface as
+ * IllegalStateException wrapping the SQLException; {@link #forEach} rethrows the SQLException
+ * itself and closes the stream.
+ */
+final class ResultSetStreams {
+
+    @FunctionalInterface
+    interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+
+    private ResultSetStreams() {
+    }
+
+    static <T> Stream<T> stream(String sql, RowMapper<T> mapper) throws SQLException {
+        Connection conn = DatabaseManager.getInstance().getConnection();
+        try {
+            PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            try {
+                stmt.setFetchSize(DatabaseManager.getInstance().getFetchSize());
+                ResultSet rs = stmt.executeQuery();
+                return StreamSupport.stream(new RowSpliterator<>(rs, mapper), false)
+                        .onClose(() -> close(rs, stmt, conn));
+            } catch (SQLException | RuntimeException e) {
+                stmt.close();
+                throw e;
+            }
+        } catch (SQLException | RuntimeException e) {
+            conn.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Passes every row to the action, then closes the query.
+     */
+    static <T> void forEach(String sql, RowMapper<T> mapper, Consumer<? super T> action) throws SQLException {
+        try (Stream<T> rows = stream(sql, mapper)) {
+            rows.forEach(action);
+        } catch (IllegalStateException e) {
+            if (e.getCause() instanceof SQLException) {
+                throw (SQLException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    // Result set, statement, then connection; each is closed even if an earlier close fails
+    private static void close(ResultSet rs, PreparedStatement stmt, Connection conn) {
+        SQLException failure = null;
+        try {
+            rs.close();
+        } catch (SQLException e) {
+            failure = e;
+        }
+        try {
+            stmt.close();
+        } catch (SQLException e) {
+            failure = chain(failure, e);
+        }
+        try {
+            conn.close();
+        } catch (SQLException e) {
+            failure = chain(failure, e);
+        }
+        if (failure != null) {
+            throw new IllegalStateException("Closing streamed query failed", failure);
+        }
+    }
+
+    private static SQLException chain(SQLException first, SQLException next) {
+        if (first == null) {
+            return next;
+        }
+        first.addSuppressed(next);
+        return first;
+    }
+
+    private static class RowSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+        private final ResultSet rs;
+        private final RowMapper<T> mapper;
+
+        RowSpliterator(ResultSet rs, RowMapper<T> mapper) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.rs = rs;
+            this.mapper = mapper;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            try {
+                if (!rs.next()) {
+                    return false;
+                }
+                action.accept(mapper.map(rs));
+                return true;
+            } catch (SQLException e) {
+                throw new IllegalStateException("Reading streamed rows failed", e);
+            }
+        }
+    }
+}
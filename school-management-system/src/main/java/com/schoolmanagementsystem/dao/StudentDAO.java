@@ -9,6 +9,7 @@ import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Data Access Object for Student entity
@@ -16,6 +17,13 @@ import java.util.List;
 public class StudentDAO {
     private static final Logger logger = LoggerFactory.getLogger(StudentDAO.class);
 
+    private static final String SELECT_SQL = "SELECT * FROM Student ";
+    private static final String PAGE_SQL = SELECT_SQL + "WHERE studentId > ? ORDER BY studentId LIMIT ?";
+    private static final String STREAM_SQL = SELECT_SQL + "ORDER BY studentId";
+
+    // Shared by every StudentDAO instance, since panels and services each create their own
+    private static final NameSearchIndex NAME_INDEX = new NameSearchIndex("Student", "studentId");
+
     public List<Student> findAll() throws SQLException {
         List<Student> students = new ArrayList<>();
         // Corrected column names: lastName, firstName
@@ -34,6 +42,34 @@ public class StudentDAO {
         return students;
     }
 
+    /**
+     * Up to limit students with studentId greater than afterId, in ID order. Pass the last ID of a
+     * page as afterId to read the next one; start from 0.
+     */
+    public List<Student> findPage(int afterId, int limit) throws SQLException {
+        List<Student> page = new ArrayList<>();
+        try (Connection conn = DatabaseManager.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(PAGE_SQL)) {
+            stmt.setInt(1, afterId);
+            stmt.setInt(2, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    page.add(mapResultSetToStudent(rs));
+                }
+            }
+        }
+        logger.debug("Found {} students with ID after {}", page.size(), afterId);
+        return page;
+    }
+
+    /**
+     * Every student in ID order, read through a server-side cursor so memory stays bounded.
+     * The stream holds a connection until it is closed.
+     */
+    public Stream<Student> stream() throws SQLException {
+        return ResultSetStreams.stream(STREAM_SQL, this::mapResultSetToStudent);
+    }
+
     public Student findById(int studentId) throws SQLException {
         // Corrected column name: studentId
         String sql = "SELECT * FROM Student WHERE studentId = ?";
@@ -53,35 +89,33 @@ public class StudentDAO {
         return null;
     }
 
+    /**
+     * Students whose first, last or full name contains the search term, ignoring case and accents,
+     * best match first: exact name, then name prefix, word prefix and other substrings.
+     */
     public List<Student> findByName(String searchTerm) throws SQLException {
-        List<Student> students = new ArrayList<>();
-        String sql = "SELECT * FROM Student WHERE " +
-                // Corrected column names: firstName, lastName
-                "LOWER(firstName) LIKE LOWER(?) OR " +
-                "LOWER(lastName) LIKE LOWER(?) OR " +
-                "LOWER(CONCAT(firstName, ' ', lastName)) LIKE LOWER(?) " +
-                "ORDER BY lastName, firstName"; // Corrected column names
-
-        String pattern = "%" + searchTerm + "%";
-
-        try (Connection conn = DatabaseManager.getInstance().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setString(1, pattern);
-            stmt.setString(2, pattern);
-            stmt.setString(3, pattern);
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    students.add(mapResultSetToStudent(rs));
-                }
-            }
-        }
+        return findByName(searchTerm, Integer.MAX_VALUE);
+    }
 
+    /**
+     * Up to limit students whose name contains the search term, best match first.
+     */
+    public List<Student> findByName(String searchTerm, int limit) throws SQLException {
+        List<Student> students = NAME_INDEX.search(searchTerm, limit, false, this::mapResultSetToStudent);
         logger.debug("Found {} students matching '{}'", students.size(), searchTerm);
         return students;
     }
 
+    /**
+     * Up to limit students with a first or last name starting with the prefix, best match first.
+     * Meant for type-ahead search.
+     */
+    public List<Student> findByNamePrefix(String prefix, int limit) throws SQLException {
+        List<Student> students = NAME_INDEX.search(prefix, limit, true, this::mapResultSetToStudent);
+        logger.debug("Found {} students with a name starting with '{}'", students.size(), prefix);
+        return students;
+    }
+
     public Student save(Student student) throws SQLException {
         if (student.getStudentId() == 0) {
             return insert(student);
@@ -113,6 +147,7 @@ public class StudentDAO {
             }
         }
 
+        NAME_INDEX.put(student.getStudentId(), student.getFirstName(), student.getLastName());
         logger.info("Created new student: {}", student);
         return student;
     }
@@ -133,6 +168,7 @@ public class StudentDAO {
             }
         }
 
+        NAME_INDEX.put(student.getStudentId(), student.getFirstName(), student.getLastName());
         logger.info("Updated student: {}", student);
         return student;
     }
@@ -146,6 +182,7 @@ public class StudentDAO {
             stmt.setInt(1, studentId);
 
             int rowsAffected = stmt.executeUpdate();
+            NAME_INDEX.remove(studentId);
             logger.info("Deleted student with ID: {}", studentId);
             return rowsAffected > 0;
         }
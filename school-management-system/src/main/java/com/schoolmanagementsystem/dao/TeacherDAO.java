@@ -7,7 +7,9 @@ import org.slf4j.LoggerFactory;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Data Access Object for Teacher entity
@@ -15,6 +17,13 @@ import java.util.List;
 public class TeacherDAO {
     private static final Logger logger = LoggerFactory.getLogger(TeacherDAO.class);
 
+    private static final String SELECT_SQL = "SELECT * FROM Teacher ";
+    private static final String PAGE_SQL = SELECT_SQL + "WHERE teacherId > ? ORDER BY teacherId LIMIT ?";
+    private static final String STREAM_SQL = SELECT_SQL + "ORDER BY teacherId";
+
+    // Shared by every TeacherDAO instance, since panels and services each create their own
+    private static final NameSearchIndex NAME_INDEX = new NameSearchIndex("Teacher", "teacherId");
+
     public List<Teacher> findAll() throws SQLException {
         List<Teacher> teachers = new ArrayList<>();
         // Corrected column names: lastName, firstName
@@ -32,7 +41,56 @@ public class TeacherDAO {
         return teachers;
     }
 
+    /**
+     * Up to limit teachers with teacherId greater than afterId, in ID order. Pass the last ID of a
+     * page as afterId to read the next one; start from 0.
+     */
+    public List<Teacher> findPage(int afterId, int limit) throws SQLException {
+        List<Teacher> page = new ArrayList<>();
+        try (Connection conn = DatabaseManager.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(PAGE_SQL)) {
+            stmt.setInt(1, afterId);
+            stmt.setInt(2, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    page.add(mapResultSetToTeacher(rs));
+                }
+            }
+        }
+        logger.debug("Found {} teachers with ID after {}", page.size(), afterId);
+        return page;
+    }
+
+    /**
+     * Every teacher in ID order, read through a server-side cursor so memory stays bounded.
+     * The stream holds a connection until it is closed.
+     */
+    public Stream<Teacher> stream() throws SQLException {
+        return ResultSetStreams.stream(STREAM_SQL, this::mapResultSetToTeacher);
+    }
+
+    /**
+     * The teacher with the given ID, served from a cache shared by all TeacherDAOs. Each call
+     * returns a fresh copy, so callers may modify it.
+     */
     public Teacher findById(int teacherId) throws SQLException {
+        return copyOf(Caches.BY_ID.get(teacherId, this::loadById));
+    }
+
+    /**
+     * Hit, miss and eviction counters of the by-ID cache.
+     */
+    public static List<EntityCache.Stats> getCacheStats() {
+        return Collections.singletonList(Caches.BY_ID.getStats());
+    }
+
+    private static void invalidateCaches(int teacherId) {
+        Caches.BY_ID.invalidate(teacherId);
+        // Cached courses carry the teacher's name
+        CourseDAO.invalidateCaches();
+    }
+
+    private Teacher loadById(int teacherId) throws SQLException {
         // Corrected table and column name: Teacher, teacherId
         String sql = "SELECT * FROM Teacher WHERE teacherId = ?";
 
@@ -50,33 +108,33 @@ public class TeacherDAO {
         return null;
     }
 
+    /**
+     * Teachers whose first, last or full name contains the search term, ignoring case and accents,
+     * best match first: exact name, then name prefix, word prefix and other substrings.
+     */
     public List<Teacher> findByName(String searchTerm) throws SQLException {
-        List<Teacher> teachers = new ArrayList<>();
-        String sql = "SELECT * FROM Teacher WHERE " +
-                "LOWER(firstName) LIKE LOWER(?) OR " +
-                "LOWER(lastName) LIKE LOWER(?) OR " +
-                "LOWER(CONCAT(firstName, ' ', lastName)) LIKE LOWER(?) " +
-                "ORDER BY lastName, firstName"; // Corrected column names
-
-        String pattern = "%" + searchTerm + "%";
-
-        try (Connection conn = DatabaseManager.getInstance().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setString(1, pattern);
-            stmt.setString(2, pattern);
-            stmt.setString(3, pattern);
+        return findByName(searchTerm, Integer.MAX_VALUE);
+    }
 
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    teachers.add(mapResultSetToTeacher(rs));
-                }
-            }
-        }
+    /**
+     * Up to limit teachers whose name contains the search term, best match first.
+     */
+    public List<Teacher> findByName(String searchTerm, int limit) throws SQLException {
+        List<Teacher> teachers = NAME_INDEX.search(searchTerm, limit, false, this::mapResultSetToTeacher);
         logger.debug("Found {} teachers matching '{}'", teachers.size(), searchTerm);
         return teachers;
     }
 
+    /**
+     * Up to limit teachers with a first or last name starting with the prefix, best match first.
+     * Meant for type-ahead search.
+     */
+    public List<Teacher> findByNamePrefix(String prefix, int limit) throws SQLException {
+        List<Teacher> teachers = NAME_INDEX.search(prefix, limit, true, this::mapResultSetToTeacher);
+        logger.debug("Found {} teachers with a name starting with '{}'", teachers.size(), prefix);
+        return teachers;
+    }
+
     public Teacher save(Teacher teacher) throws SQLException {
         if (teacher.getTeacherId() == 0) {
             return insert(teacher);
@@ -107,6 +165,7 @@ public class TeacherDAO {
                 }
             }
         }
+        NAME_INDEX.put(teacher.getTeacherId(), teacher.getFirstName(), teacher.getLastName());
         logger.info("Created new teacher: {}", teacher);
         return teacher;
     }
@@ -127,6 +186,8 @@ public class TeacherDAO {
                 throw new SQLException("Updating teacher failed, no rows affected.");
             }
         }
+        invalidateCaches(teacher.getTeacherId());
+        NAME_INDEX.put(teacher.getTeacherId(), teacher.getFirstName(), teacher.getLastName());
         logger.info("Updated teacher: {}", teacher);
         return teacher;
     }
@@ -141,6 +202,8 @@ public class TeacherDAO {
             stmt.setInt(1, teacherId);
 
             int rowsAffected = stmt.executeUpdate();
+            invalidateCaches(teacherId);
+            NAME_INDEX.remove(teacherId);
             logger.info("Deleted teacher with ID: {}", teacherId);
             return rowsAffected > 0;
         }
@@ -154,6 +217,19 @@ public class TeacherDAO {
         stmt.setString(5, teacher.getPhoneNumber());
     }
 
+    private static Teacher copyOf(Teacher teacher) {
+        if (teacher == null) {
+            return null;
+        }
+        return new Teacher(teacher.getTeacherId(), teacher.getFirstName(), teacher.getLastName(),
+                teacher.getEmail(), teacher.getDepartment(), teacher.getPhoneNumber());
+    }
+
+    // Created on first use, so that loading the class does not read the configuration
+    private static class Caches {
+        static final EntityCache<Integer, Teacher> BY_ID = EntityCache.fromProperties("teachers by ID");
+    }
+
     private Teacher mapResultSetToTeacher(ResultSet rs) throws SQLException {
         Teacher teacher = new Teacher();
         teacher.setTeacherId(rs.getInt("teacherId")); // Corrected column name
@@ -9,6 +9,7 @@ import java.sql.*;
 import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Data Access Object for TimeSlot entity
@@ -16,6 +17,10 @@ import java.util.List;
 public class TimeSlotDAO {
     private static final Logger logger = LoggerFactory.getLogger(TimeSlotDAO.class);
 
+    private static final String SELECT_SQL = "SELECT * FROM TimeSlot ";
+    private static final String PAGE_SQL = SELECT_SQL + "WHERE timeSlotId > ? ORDER BY timeSlotId LIMIT ?";
+    private static final String STREAM_SQL = SELECT_SQL + "ORDER BY timeSlotId";
+
     public List<TimeSlot> findAll() throws SQLException {
         List<TimeSlot> timeSlots = new ArrayList<>();
         // Corrected table and column names: TimeSlot, dayOfWeek, startTime, endTime, room
@@ -33,6 +38,34 @@ public class TimeSlotDAO {
         return timeSlots;
     }
 
+    /**
+     * Up to limit time slots with timeSlotId greater than afterId, in ID order. Pass the last ID of a
+     * page as afterId to read the next one; start from 0.
+     */
+    public List<TimeSlot> findPage(int afterId, int limit) throws SQLException {
+        List<TimeSlot> page = new ArrayList<>();
+        try (Connection conn = DatabaseManager.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(PAGE_SQL)) {
+            stmt.setInt(1, afterId);
+            stmt.setInt(2, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    page.add(mapResultSetToTimeSlot(rs));
+                }
+            }
+        }
+        logger.debug("Found {} time slots with ID after {}", page.size(), afterId);
+        return page;
+    }
+
+    /**
+     * Every time slot in ID order, read through a server-side cursor so memory stays bounded.
+     * The stream holds a connection until it is closed.
+     */
+    public Stream<TimeSlot> stream() throws SQLException {
+        return ResultSetStreams.stream(STREAM_SQL, this::mapResultSetToTimeSlot);
+    }
+
     public TimeSlot findById(int timeSlotId) throws SQLException {
         // Corrected table and column names: TimeSlot, timeSlotId
         String sql = "SELECT * FROM TimeSlot WHERE timeSlotId = ?";
@@ -81,6 +114,7 @@ public class TimeSlotDAO {
                 }
             }
         }
+        CourseScheduleDAO.invalidateStatistics();
         logger.info("Created new time slot: {}", timeSlot);
         return timeSlot;
     }
@@ -101,6 +135,7 @@ public class TimeSlotDAO {
                 throw new SQLException("Updating time slot failed, no rows affected.");
             }
         }
+        CourseScheduleDAO.invalidateStatistics();
         logger.info("Updated time slot: {}", timeSlot);
         return timeSlot;
     }
@@ -115,6 +150,7 @@ public class TimeSlotDAO {
             stmt.setInt(1, timeSlotId);
 
             int rowsAffected = stmt.executeUpdate();
+            CourseScheduleDAO.invalidateStatistics();
             logger.info("Deleted time slot with ID: {}", timeSlotId);
             return rowsAffected > 0;
         }
@@ -1,7 +1,15 @@
 package com.schoolmanagementsystem.service;
 
+import com.schoolmanagementsystem.algorithm.scheduling.CourseConflictGraph;
 import com.schoolmanagementsystem.algorithm.scheduling.GreedyScheduler;
+import com.schoolmanagementsystem.algorithm.scheduling.LocalSearchOptimizer;
+import com.schoolmanagementsystem.algorithm.scheduling.MultiStartScheduler;
+import com.schoolmanagementsystem.algorithm.scheduling.ScheduleConflicts;
+import com.schoolmanagementsystem.algorithm.scheduling.ScheduleConstraints;
+import com.schoolmanagementsystem.algorithm.scheduling.ScheduleRepair;
+import com.schoolmanagementsystem.algorithm.scheduling.StudentAwareScheduler;
 import com.schoolmanagementsystem.dao.CourseDAO;
+import com.schoolmanagementsystem.dao.EnrollmentDAO;
 import com.schoolmanagementsystem.dao.TimeSlotDAO;
 import com.schoolmanagementsystem.dao.CourseScheduleDAO;
 import com.schoolmanagementsystem.model.Course;
@@ -13,6 +21,7 @@ import org.slf4j.LoggerFactory;
 import java.sql.SQLException;
 import java.time.LocalTime;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -24,11 +33,13 @@ public class SchedulingService {
     private final CourseDAO courseDAO;
     private final TimeSlotDAO timeSlotDAO;
     private final CourseScheduleDAO courseScheduleDAO;
+    private final EnrollmentDAO enrollmentDAO;
 
     public SchedulingService() {
         this.courseDAO = new CourseDAO();
         this.timeSlotDAO = new TimeSlotDAO();
         this.courseScheduleDAO = new CourseScheduleDAO();
+        this.enrollmentDAO = new EnrollmentDAO();
     }
 
     public List<GreedyScheduler.ScheduleResult> generateOptimalSchedule() throws SQLException {
@@ -40,34 +51,187 @@ public class SchedulingService {
         GreedyScheduler scheduler = new GreedyScheduler(timeSlots);
 
         // Create schedule requests for all courses
+        List<GreedyScheduler.ScheduleRequest> requests = createScheduleRequests(courses);
+
+        List<GreedyScheduler.ScheduleResult> results = scheduler.scheduleOptimal(requests);
+        saveScheduleResults(results);
+        return results;
+    }
+
+    /**
+     * Generates a schedule that also keeps courses with shared students in non-overlapping
+     * periods as far as rooms and teachers allow, using the current enrollments.
+     */
+    public List<GreedyScheduler.ScheduleResult> generateStudentAwareSchedule() throws SQLException {
+        logger.info("Generating student-aware schedule from enrollment conflicts");
+
+        List<Course> courses = courseDAO.findAll();
+        List<TimeSlot> timeSlots = timeSlotDAO.findAll();
+        CourseConflictGraph conflictGraph = loadConflictGraph(courses);
+
+        StudentAwareScheduler scheduler = new StudentAwareScheduler(timeSlots, conflictGraph);
+        List<GreedyScheduler.ScheduleResult> results = scheduler.scheduleOptimal(createScheduleRequests(courses));
+        saveScheduleResults(results);
+        return results;
+    }
+
+    /**
+     * Generates the greedy schedule, then improves it by local search for up to timeBudgetMillis,
+     * trading off unplaced courses, preferred-slot misses and student clashes.
+     */
+    public List<GreedyScheduler.ScheduleResult> generateOptimizedSchedule(long timeBudgetMillis) throws SQLException {
+        logger.info("Generating greedy schedule with a {} ms local search phase", timeBudgetMillis);
+
+        List<Course> courses = courseDAO.findAll();
+        List<TimeSlot> timeSlots = timeSlotDAO.findAll();
+        CourseConflictGraph conflictGraph = loadConflictGraph(courses);
+
+        List<GreedyScheduler.ScheduleRequest> requests = createScheduleRequests(courses);
+        List<GreedyScheduler.ScheduleResult> initial = new GreedyScheduler(timeSlots).scheduleOptimal(requests);
+
+        LocalSearchOptimizer optimizer = new LocalSearchOptimizer(timeSlots, conflictGraph);
+        LocalSearchOptimizer.Result optimized = optimizer.optimize(requests, initial, timeBudgetMillis);
+        logger.info("Local search reduced schedule cost from {} to {}", optimized.getInitialCost(), optimized.getCost());
+
+        saveScheduleResults(optimized.getResults());
+        return optimized.getResults();
+    }
+
+    /**
+     * Runs the greedy scheduler the given number of times in parallel, each with a tie-break
+     * seed from baseSeed on, and saves the cheapest schedule. The returned result records every
+     * run's seed and cost; pass a seed to {@link #generateScheduleFromSeed(long)} to rebuild it.
+     */
+    public MultiStartScheduler.Result generateMultiStartSchedule(int runs, long baseSeed) throws SQLException {
+        logger.info("Generating schedule from {} seeded greedy runs", runs);
+
+        List<Course> courses = courseDAO.findAll();
+        MultiStartScheduler scheduler = new MultiStartScheduler(timeSlotDAO.findAll(), loadConflictGraph(courses));
+        MultiStartScheduler.Result result = scheduler.run(createScheduleRequests(courses), runs, baseSeed);
+
+        if (result.getBest() != null) {
+            logger.info("Saving schedule of seed {} with cost {}", result.getBest().getSeed(), result.getBest().getCost());
+            saveScheduleResults(result.getResults());
+        }
+        return result;
+    }
+
+    /**
+     * Rebuilds and saves the schedule of one seeded greedy run, given the same courses and slots.
+     */
+    public List<GreedyScheduler.ScheduleResult> generateScheduleFromSeed(long seed) throws SQLException {
+        logger.info("Generating schedule from tie-break seed {}", seed);
+
+        List<Course> courses = courseDAO.findAll();
+        GreedyScheduler scheduler = new GreedyScheduler(timeSlotDAO.findAll());
+        List<GreedyScheduler.ScheduleResult> results = scheduler.scheduleOptimal(createScheduleRequests(courses), seed);
+        saveScheduleResults(results);
+        return results;
+    }
+
+    /**
+     * Repairs the saved timetable after the course was added or edited: the course keeps its
+     * slot if it is still free for its teacher, otherwise it and at most a few other courses are
+     * moved. Only the changed assignments are written.
+     */
+    public ScheduleRepair.Result rescheduleCourse(int courseId) throws SQLException {
+        logger.info("Repairing schedule around course {}", courseId);
+        return repairSchedule(schedules -> Collections.singleton(courseId));
+    }
+
+    /**
+     * Repairs the saved timetable after the time slot's day, times or room were edited: the
+     * courses held in it stay unless they now clash, in which case they are moved with as few
+     * other courses as possible. Only the changed assignments are written.
+     */
+    public ScheduleRepair.Result rescheduleTimeSlot(int timeSlotId) throws SQLException {
+        logger.info("Repairing schedule around time slot {}", timeSlotId);
+        return repairSchedule(schedules -> schedules.stream()
+                .filter(cs -> cs.getTimeSlotId() == timeSlotId)
+                .map(CourseSchedule::getCourseId)
+                .collect(Collectors.toSet()));
+    }
+
+    private ScheduleRepair.Result repairSchedule(Function<List<CourseSchedule>, Set<Integer>> changedCourses)
+            throws SQLException {
+        List<Course> courses = courseDAO.findAll();
+        List<TimeSlot> timeSlots = timeSlotDAO.findAll();
+        List<CourseSchedule> schedules = courseScheduleDAO.findAll();
+
+        Map<Integer, TimeSlot> timeSlotMap = timeSlots.stream()
+                .collect(Collectors.toMap(TimeSlot::getTimeSlotId, ts -> ts));
+        Map<Integer, CourseSchedule> scheduleByCourse = new HashMap<>();
+        Map<Integer, TimeSlot> current = new HashMap<>();
+        for (CourseSchedule schedule : schedules) {
+            scheduleByCourse.put(schedule.getCourseId(), schedule);
+            current.put(schedule.getCourseId(), timeSlotMap.get(schedule.getTimeSlotId()));
+        }
+
+        ScheduleRepair repair = new ScheduleRepair(timeSlots, loadConflictGraph(courses));
+        ScheduleRepair.Result result = repair.repair(createScheduleRequests(courses), current, changedCourses.apply(schedules));
+
+        List<CourseSchedule> saved = new ArrayList<>();
+        List<Integer> removed = new ArrayList<>();
+        for (ScheduleRepair.Move move : result.getMoves()) {
+            int courseId = move.getCourse().getCourseId();
+            if (move.getTo() == null) {
+                removed.add(courseId);
+                continue;
+            }
+            CourseSchedule schedule = scheduleByCourse.get(courseId);
+            if (schedule == null) {
+                schedule = new CourseSchedule(courseId, move.getTo().getTimeSlotId());
+            } else {
+                schedule.setTimeSlotId(move.getTo().getTimeSlotId());
+            }
+            saved.add(schedule);
+        }
+        for (Course course : result.getUnplaced()) {
+            logger.warn("Course '{}' could not be rescheduled", course.getCourseName());
+        }
+        if (!saved.isEmpty() || !removed.isEmpty()) {
+            courseScheduleDAO.applyChanges(saved, removed);
+        }
+        return result;
+    }
+
+    private CourseConflictGraph loadConflictGraph(List<Course> courses) throws SQLException {
+        CourseConflictGraph.Builder builder = CourseConflictGraph.builder(
+                courses.stream().map(Course::getCourseId).collect(Collectors.toList()));
+        enrollmentDAO.forEachPair(builder::add);
+        CourseConflictGraph conflictGraph = builder.build();
+        logger.debug("Course conflict graph: {} courses, {} conflicting pairs",
+                conflictGraph.courseCount(), conflictGraph.edgeCount());
+        return conflictGraph;
+    }
+
+    private List<GreedyScheduler.ScheduleRequest> createScheduleRequests(List<Course> courses) {
         List<GreedyScheduler.ScheduleRequest> requests = new ArrayList<>();
         for (Course course : courses) {
             // Priority based on course credits and capacity, higher priority for more credits/larger capacity
             int priority = course.getCredits() * course.getCapacity();
             requests.add(new GreedyScheduler.ScheduleRequest(course, null, priority));
         }
+        return requests;
+    }
 
-        List<GreedyScheduler.ScheduleResult> results = scheduler.scheduleOptimal(requests);
-
-        // Clear existing schedules before saving new optimal ones to prevent duplicates and stale data
-        clearAllSchedules();
-
-        // Persist the generated schedule results to the database
+    private void saveScheduleResults(List<GreedyScheduler.ScheduleResult> results) throws SQLException {
+        List<CourseSchedule> schedules = new ArrayList<>();
         for (GreedyScheduler.ScheduleResult result : results) {
             if (result.isSuccessful()) {
                 Course course = result.getCourse();
                 TimeSlot timeSlot = result.getAssignedTimeSlot();
                 if (course != null && timeSlot != null) {
-                    CourseSchedule newSchedule = new CourseSchedule(course.getCourseId(), timeSlot.getTimeSlotId());
-                    courseScheduleDAO.save(newSchedule);
-                    logger.debug("Saved scheduled course: {} to time slot: {}", course.getCourseName(), timeSlot.toString());
+                    schedules.add(new CourseSchedule(course.getCourseId(), timeSlot.getTimeSlotId()));
                 }
             } else {
                 logger.warn("Course '{}' could not be scheduled. Reason: {}", result.getCourse().getCourseName(), result.getReason());
             }
         }
 
-        return results;
+        // Swap the old timetable for the new one in a single transaction
+        courseScheduleDAO.replaceAll(schedules);
+        logger.info("Saved {} scheduled courses", schedules.size());
     }
 
     public List<Course> getAllCourses() throws SQLException {
@@ -81,15 +245,18 @@ public class SchedulingService {
     /**
      * Adds a new TimeSlot.
      * Expects the dayOfWeek as java.time.DayOfWeek and converts to TimeSlot.DayOfWeek.
-     * Now also takes a room parameter.
+     * Returns false if the slot overlaps another slot in the same room; slots in different
+     * rooms may run in parallel.
      */
     public boolean addTimeSlot(java.time.DayOfWeek javaDayOfWeek, LocalTime startTime, LocalTime endTime, String room) throws SQLException {
         // Convert java.time.DayOfWeek to custom enum
         TimeSlot.DayOfWeek dayOfWeek = TimeSlot.DayOfWeek.valueOf(javaDayOfWeek.name());
-        // Check for overlapping time slots on the same day
+        // Check for overlapping time slots in the same room on the same day
+        String roomKey = room == null ? "" : room.trim();
         List<TimeSlot> existing = timeSlotDAO.findAll();
         for (TimeSlot ts : existing) {
-            if (ts.getDayOfWeek().equals(dayOfWeek)) {
+            String existingRoom = ts.getRoom() == null ? "" : ts.getRoom().trim();
+            if (ts.getDayOfWeek().equals(dayOfWeek) && existingRoom.equals(roomKey)) {
                 boolean overlap = !(ts.getEndTime().compareTo(startTime) <= 0 || ts.getStartTime().compareTo(endTime) >= 0);
                 if (overlap) return false;
             }
@@ -103,74 +270,95 @@ public class SchedulingService {
         return true;
     }
 
-    // Helper method to clear all schedules
-    private void clearAllSchedules() throws SQLException {
-        logger.info("Clearing all existing course schedules from the database.");
-        List<CourseSchedule> allSchedules = courseScheduleDAO.findAll();
-        for (CourseSchedule schedule : allSchedules) {
-            courseScheduleDAO.delete(schedule.getScheduleId());
+    /**
+     * Checks whether two scheduled courses share a room or a teacher at overlapping times,
+     * with an O(n log n) sweep per resource kind.
+     */
+    public boolean hasScheduleConflicts() throws SQLException {
+        logger.debug("Checking for schedule conflicts");
+
+        List<ScheduledCourse> scheduled = loadScheduledCourses();
+        boolean conflicts = ScheduleConstraints.hasConflicts(scheduled, ScheduledCourse::getCourse, ScheduledCourse::getTimeSlot);
+        if (conflicts) {
+            logger.warn("Schedule conflicts detected among {} scheduled courses", scheduled.size());
         }
-        logger.info("Cleared {} existing course schedules.", allSchedules.size());
+        return conflicts;
     }
 
     /**
-     * Checks for schedule conflicts among all scheduled courses.
-     * Uses a simple pairwise check on timeslots rather than interval tree.
+     * Lists every pair of scheduled courses that share a room or a teacher at overlapping times.
      */
-    public boolean hasScheduleConflicts() throws SQLException {
-        logger.debug("Checking for schedule conflicts");
+    public List<ScheduleConflicts.Conflict<ScheduledCourse>> findScheduleConflicts() throws SQLException {
+        List<ScheduleConflicts.Conflict<ScheduledCourse>> conflicts = ScheduleConstraints.findConflicts(
+                loadScheduledCourses(), ScheduledCourse::getCourse, ScheduledCourse::getTimeSlot);
+        logger.debug("Found {} schedule conflicts", conflicts.size());
+        return conflicts;
+    }
 
+    private List<ScheduledCourse> loadScheduledCourses() throws SQLException {
+        return loadScheduledCourses(timeSlotDAO.findAll());
+    }
+
+    private List<ScheduledCourse> loadScheduledCourses(List<TimeSlot> timeSlots) throws SQLException {
         List<CourseSchedule> schedules = courseScheduleDAO.findAll();
-        List<TimeSlot> allTimeSlots = timeSlotDAO.findAll();
-        Map<Integer, TimeSlot> timeSlotMap = allTimeSlots.stream()
+        Map<Integer, TimeSlot> timeSlotMap = timeSlots.stream()
                 .collect(Collectors.toMap(TimeSlot::getTimeSlotId, ts -> ts));
+        Map<Integer, Course> courseMap = courseDAO.findAll().stream()
+                .collect(Collectors.toMap(Course::getCourseId, c -> c));
 
-        // Build a list of scheduled time slots
-        List<TimeSlot> scheduledTimeSlots = new ArrayList<>();
+        List<ScheduledCourse> scheduled = new ArrayList<>(schedules.size());
         for (CourseSchedule schedule : schedules) {
             TimeSlot timeSlot = timeSlotMap.get(schedule.getTimeSlotId());
-            if (timeSlot != null) {
-                scheduledTimeSlots.add(timeSlot);
+            Course course = courseMap.get(schedule.getCourseId());
+            if (timeSlot != null && course != null) {
+                scheduled.add(new ScheduledCourse(schedule, course, timeSlot));
             }
         }
+        return scheduled;
+    }
 
-        // Simple O(n^2) pairwise conflict detection
-        for (int i = 0; i < scheduledTimeSlots.size(); i++) {
-            for (int j = i + 1; j < scheduledTimeSlots.size(); j++) {
-                TimeSlot ts1 = scheduledTimeSlots.get(i);
-                TimeSlot ts2 = scheduledTimeSlots.get(j);
-                if (ts1.getDayOfWeek().equals(ts2.getDayOfWeek()) && isOverlap(ts1, ts2)) {
-                    logger.warn("Schedule conflict detected between time slots: {} and {}", ts1, ts2);
-                    return true;
-                }
-            }
+    /**
+     * A persisted schedule entry together with its course and time slot.
+     */
+    public static class ScheduledCourse {
+        private final CourseSchedule schedule;
+        private final Course course;
+        private final TimeSlot timeSlot;
+
+        public ScheduledCourse(CourseSchedule schedule, Course course, TimeSlot timeSlot) {
+            this.schedule = schedule;
+            this.course = course;
+            this.timeSlot = timeSlot;
         }
-        return false;
-    }
 
-    // Helper to check overlap between two TimeSlots
-    private boolean isOverlap(TimeSlot ts1, TimeSlot ts2) {
-        LocalTime start1 = ts1.getStartTime();
-        LocalTime end1 = ts1.getEndTime();
-        LocalTime start2 = ts2.getStartTime();
-        LocalTime end2 = ts2.getEndTime();
-        return !(end1.compareTo(start2) <= 0 || start1.compareTo(end2) >= 0);
+        public CourseSchedule getSchedule() { return schedule; }
+        public Course getCourse() { return course; }
+        public TimeSlot getTimeSlot() { return timeSlot; }
+
+        @Override
+        public String toString() {
+            return course.getCourseCode() + " - " + timeSlot;
+        }
     }
 
+    /**
+     * Time slots where the course could go without double-booking a room or its teacher,
+     * ignoring the course's own current assignment.
+     */
     public List<TimeSlot> findAvailableTimeSlots(Course course) throws SQLException {
         logger.debug("Finding available time slots for course: {}", course.getCourseCode());
 
         List<TimeSlot> allTimeSlots = timeSlotDAO.findAll();
-        List<CourseSchedule> existingSchedules = courseScheduleDAO.findAll();
-
-        Set<Integer> occupiedTimeSlotIds = new HashSet<>();
-        for (CourseSchedule schedule : existingSchedules) {
-            occupiedTimeSlotIds.add(schedule.getTimeSlotId());
+        ScheduleConstraints constraints = new ScheduleConstraints();
+        for (ScheduledCourse scheduled : loadScheduledCourses(allTimeSlots)) {
+            if (scheduled.getCourse().getCourseId() != course.getCourseId()) {
+                constraints.place(new GreedyScheduler.CourseTimeSlot(scheduled.getCourse(), scheduled.getTimeSlot()));
+            }
         }
 
         List<TimeSlot> availableSlots = new ArrayList<>();
         for (TimeSlot timeSlot : allTimeSlots) {
-            if (!occupiedTimeSlotIds.contains(timeSlot.getTimeSlotId())) {
+            if (constraints.canPlace(course, timeSlot)) {
                 availableSlots.add(timeSlot);
             }
         }
@@ -179,17 +367,36 @@ public class SchedulingService {
         return availableSlots;
     }
 
+    /**
+     * Assigns the course to the time slot, replacing its current assignment. Returns false and
+     * writes nothing if the course or slot does not exist, or if the slot's room or the course's
+     * teacher is booked by another course at an overlapping time.
+     */
     public boolean assignCourseToTimeSlot(int courseId, int timeSlotId) throws SQLException {
         logger.info("Assigning course {} to time slot {}", courseId, timeSlotId);
 
-        // Check if the time slot is already occupied by another course (not the same course being reassigned)
-        List<CourseSchedule> existingSchedulesInSlot = courseScheduleDAO.findAll().stream()
-                .filter(cs -> cs.getTimeSlotId() == timeSlotId && cs.getCourseId() != courseId)
-                .collect(Collectors.toList());
+        Course course = courseDAO.findById(courseId);
+        List<TimeSlot> allTimeSlots = timeSlotDAO.findAll();
+        TimeSlot timeSlot = allTimeSlots.stream()
+                .filter(ts -> ts.getTimeSlotId() == timeSlotId)
+                .findFirst()
+                .orElse(null);
+        if (course == null || timeSlot == null) {
+            logger.warn("Cannot assign course {} to time slot {}: course or time slot not found", courseId, timeSlotId);
+            return false;
+        }
 
-        if (!existingSchedulesInSlot.isEmpty()) {
-            logger.warn("Time slot {} is already occupied by another course when trying to assign course {}.", timeSlotId, courseId);
-            // Optionally, you could throw an exception or return false to indicate conflict
+        // Same room and teacher checks as findAvailableTimeSlots, ignoring the course's own assignment
+        ScheduleConstraints constraints = new ScheduleConstraints();
+        for (ScheduledCourse scheduled : loadScheduledCourses(allTimeSlots)) {
+            if (scheduled.getCourse().getCourseId() != courseId) {
+                constraints.place(new GreedyScheduler.CourseTimeSlot(scheduled.getCourse(), scheduled.getTimeSlot()));
+            }
+        }
+        String violation = constraints.findViolation(course, timeSlot);
+        if (violation != null) {
+            logger.warn("Cannot assign course {} to time slot {}: {}", course.getCourseCode(), timeSlotId, violation);
+            return false;
         }
 
         // Check if the course already has a schedule
@@ -212,22 +419,26 @@ public class SchedulingService {
         courseScheduleDAO.deleteByCourseId(courseId);
     }
 
+    /**
+     * Dashboard figures from one aggregate query, cached until the next schedule, course or
+     * time slot write. roomUtilizationRate is the share of offered slot time that is booked.
+     */
     public Map<String, Object> getSchedulingStatistics() throws SQLException {
         logger.debug("Generating scheduling statistics");
 
+        CourseScheduleDAO.ScheduleStatistics statistics = courseScheduleDAO.getCachedStatistics();
         Map<String, Object> stats = new HashMap<>();
 
-        List<Course> courses = courseDAO.findAll();
-        List<TimeSlot> timeSlots = timeSlotDAO.findAll();
-        List<CourseSchedule> schedules = courseScheduleDAO.findAll();
-
-        stats.put("totalCourses", courses.size());
-        stats.put("totalTimeSlots", timeSlots.size());
-        stats.put("scheduledCourses", schedules.size());
-        stats.put("unscheduledCourses", courses.size() - schedules.size());
-        stats.put("utilizationRate", timeSlots.isEmpty() ? 0.0 :
-                (double) schedules.size() / timeSlots.size() * 100);
-        stats.put("hasConflicts", hasScheduleConflicts());
+        stats.put("totalCourses", statistics.getTotalCourses());
+        stats.put("totalTimeSlots", statistics.getTotalTimeSlots());
+        stats.put("scheduledCourses", statistics.getScheduledCourses());
+        stats.put("unscheduledCourses", statistics.getTotalCourses() - statistics.getScheduledCourses());
+        stats.put("utilizationRate", statistics.getTotalTimeSlots() == 0 ? 0.0 :
+                (double) statistics.getScheduledCourses() / statistics.getTotalTimeSlots() * 100);
+        stats.put("roomUtilizationRate", statistics.getOfferedSeconds() == 0 ? 0.0 :
+                (double) statistics.getBookedSeconds() / statistics.getOfferedSeconds() * 100);
+        stats.put("conflictCount", statistics.getConflictCount());
+        stats.put("hasConflicts", statistics.getConflictCount() > 0);
 
         return stats;
     }
@@ -0,0 +1,321 @@
+package com.schoolmanagementsystem.service;
+
+import com.schoolmanagementsystem.algorithm.graph.GraphSnapshot;
+import com.schoolmanagementsystem.algorithm.graph.StudentCourseGraph;
+import com.schoolmanagementsystem.dao.CourseDAO;
+import com.schoolmanagementsystem.dao.EnrollmentDAO;
+import com.schoolmanagementsystem.dao.StudentDAO;
+import com.schoolmanagementsystem.model.Course;
+import com.schoolmanagementsystem.model.Enrollment;
+import com.schoolmanagementsystem.model.Student;
+import com.schoolmanagementsystem.util.DatabaseManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps one long-lived StudentCourseGraph in step with the database.
+ *
+ * Enrollment writes made through EnrollmentDAO in this process are applied to the graph as
+ * deltas. {@link #synchronize()} picks up what other clients changed: enrollments above the
+ * high-water mark (the highest enrollment ID applied so far) are fetched and added, and the
+ * row count and pair checksum are compared with {@link EnrollmentDAO#getSyncState()}. Updates
+ * and deletes made elsewhere only show up in that comparison, in which case the graph is
+ * reloaded from scratch. Students and courses are re-read whenever their content checksums
+ * differ from the ones the graph was loaded with, so edits made here or elsewhere (a renamed
+ * student, a new course capacity) reach the graph on the next synchronize; if that re-read shows
+ * a student or course was deleted, the graph is reloaded.
+ *
+ * When snapshots are enabled the graph is saved as a GraphSnapshot after a full load and on
+ * close, together with the high-water mark it reflects. The next start maps that file and only
+ * tops it up with later changes instead of reading the whole enrollment table.
+ */
+public class StudentCourseGraphService implements EnrollmentDAO.ChangeListener {
+    private static final Logger logger = LoggerFactory.getLogger(StudentCourseGraphService.class);
+
+    private final StudentDAO studentDAO;
+    private final CourseDAO courseDAO;
+    private final EnrollmentDAO enrollmentDAO;
+    private final Path snapshotFile; // null when snapshots are disabled
+    private StudentCourseGraph graph;
+
+    private boolean loaded;
+    // Enrollment table as the graph has seen it, comparable with EnrollmentDAO.SyncState
+    private int highWaterMark;
+    private int enrollmentCount;
+    private long pairChecksum;
+    // Student and Course content checksums as of the last refresh; -1 forces a refresh
+    private long studentChecksum = -1;
+    private long courseChecksum = -1;
+    // Local inserts above the high-water mark, so that synchronize() does not apply them twice
+    private final Set<Integer> appliedAboveHighWaterMark = new HashSet<>();
+
+    public StudentCourseGraphService() {
+        this.studentDAO = new StudentDAO();
+        this.courseDAO = new CourseDAO();
+        this.enrollmentDAO = new EnrollmentDAO();
+        this.snapshotFile = configuredSnapshotFile();
+        this.graph = new StudentCourseGraph();
+        EnrollmentDAO.addChangeListener(this);
+    }
+
+    private static Path configuredSnapshotFile() {
+        DatabaseManager config = DatabaseManager.getInstance();
+        if (!Boolean.parseBoolean(config.getProperty("graph.snapshot.enabled", "false"))) {
+            return null;
+        }
+        String path = config.getProperty("graph.snapshot.path", "").trim();
+        return path.isEmpty()
+                ? Paths.get(System.getProperty("user.home"), ".school-management-system", "student-course-graph.snapshot")
+                : Paths.get(path);
+    }
+
+    /**
+     * Brings the graph up to date with the database and returns it. The first call loads
+     * everything; later calls cost one fingerprint query when nothing changed elsewhere.
+     */
+    public synchronized StudentCourseGraph synchronize() throws SQLException {
+        long start = System.nanoTime();
+        if (!loaded && !loadSnapshot()) {
+            reload();
+            return graph;
+        }
+
+        EnrollmentDAO.SyncState state = enrollmentDAO.getSyncState();
+        if (state.getStudentCount() < graph.getStudentCount() || state.getCourseCount() < graph.getCourseCount()) {
+            // Students or courses were deleted elsewhere, taking their enrollments with them
+            logger.info("Students or courses were removed by another client, reloading graph");
+            reload();
+            return graph;
+        }
+        boolean studentsKept = state.getStudentChecksum() == studentChecksum || refreshStudents(state.getStudentChecksum());
+        boolean coursesKept = state.getCourseChecksum() == courseChecksum || refreshCourses(state.getCourseChecksum());
+        if (!studentsKept || !coursesKept) {
+            // Deleted here or elsewhere, possibly alongside inserts that kept the counts equal
+            logger.info("Students or courses were removed, reloading graph");
+            reload();
+            return graph;
+        }
+
+        int applied = 0;
+        if (state.getMaxEnrollmentId() > highWaterMark) {
+            for (Enrollment enrollment : enrollmentDAO.findPairsInRange(highWaterMark, state.getMaxEnrollmentId())) {
+                if (!appliedAboveHighWaterMark.remove(enrollment.getEnrollmentId())) {
+                    applyInsert(enrollment);
+                    applied++;
+                }
+            }
+            highWaterMark = state.getMaxEnrollmentId();
+            appliedAboveHighWaterMark.removeIf(id -> id <= highWaterMark);
+        }
+
+        if (state.getEnrollmentCount() != enrollmentCount || state.getPairChecksum() != pairChecksum) {
+            logger.info("Enrollments were updated or deleted by another client, reloading graph");
+            reload();
+            return graph;
+        }
+
+        logger.debug("Graph synchronized in {} ms, {} new enrollments applied",
+                (System.nanoTime() - start) / 1_000_000, applied);
+        return graph;
+    }
+
+    /**
+     * The graph as last synchronized, without touching the database.
+     */
+    public synchronized StudentCourseGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Stops listening for enrollment changes and, if snapshots are enabled, saves the graph.
+     */
+    public synchronized void close() {
+        EnrollmentDAO.removeChangeListener(this);
+        if (loaded && snapshotFile != null) {
+            try {
+                synchronize();
+                saveSnapshot();
+            } catch (SQLException e) {
+                logger.warn("Could not synchronize graph before saving snapshot", e);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void enrollmentInserted(Enrollment enrollment) {
+        if (!loaded) return;
+        applyInsert(enrollment);
+        if (enrollment.getEnrollmentId() > highWaterMark) {
+            appliedAboveHighWaterMark.add(enrollment.getEnrollmentId());
+        }
+    }
+
+    @Override
+    public synchronized void enrollmentUpdated(Enrollment previous, Enrollment enrollment) {
+        if (!loaded || !isApplied(enrollment.getEnrollmentId())) return;
+        if (previous == null) {
+            // The checksum no longer matches, so the next synchronize() reloads
+            logger.debug("Previous state of enrollment {} unknown", enrollment.getEnrollmentId());
+            return;
+        }
+        if (previous.getStudentId() == enrollment.getStudentId() && previous.getCourseId() == enrollment.getCourseId()) {
+            return;
+        }
+        applyDelete(previous);
+        applyInsert(enrollment);
+    }
+
+    @Override
+    public synchronized void enrollmentDeleted(Enrollment enrollment) {
+        if (!loaded || !isApplied(enrollment.getEnrollmentId())) return;
+        applyDelete(enrollment);
+        appliedAboveHighWaterMark.remove(enrollment.getEnrollmentId());
+    }
+
+    private boolean isApplied(int enrollmentId) {
+        return enrollmentId <= highWaterMark || appliedAboveHighWaterMark.contains(enrollmentId);
+    }
+
+    private void reload() throws SQLException {
+        long start = System.nanoTime();
+        graph.clear();
+        appliedAboveHighWaterMark.clear();
+        enrollmentCount = 0;
+        pairChecksum = 0;
+        loaded = false;
+
+        // Checksums before the rows, so a change in between is picked up by the next synchronize
+        EnrollmentDAO.SyncState state = enrollmentDAO.getSyncState();
+        refreshStudents(state.getStudentChecksum());
+        refreshCourses(state.getCourseChecksum());
+
+        // Streamed rather than listed, so memory does not grow with the table; a student or course
+        // created after the refresh above is loaded by ID when an enrollment references it
+        highWaterMark = 0;
+        enrollmentDAO.forEachPair(enrollment -> {
+            applyInsert(enrollment);
+            highWaterMark = Math.max(highWaterMark, enrollment.getEnrollmentId());
+        });
+        graph.compact();
+        loaded = true;
+
+        logger.info("StudentCourseGraph loaded in {} ms: {} students, {} courses, {} enrollments",
+                (System.nanoTime() - start) / 1_000_000,
+                graph.getStudentCount(), graph.getCourseCount(), graph.getEnrollmentCount());
+        saveSnapshot();
+    }
+
+    /**
+     * Replaces the graph with the saved snapshot, if there is a readable one. The caller then
+     * synchronizes as usual, which applies everything after the snapshot's high-water mark.
+     */
+    private boolean loadSnapshot() throws SQLException {
+        if (snapshotFile == null || !Files.isRegularFile(snapshotFile)) {
+            return false;
+        }
+        long start = System.nanoTime();
+        GraphSnapshot snapshot;
+        try {
+            snapshot = GraphSnapshot.read(snapshotFile);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Ignoring unreadable graph snapshot {}", snapshotFile, e);
+            return false;
+        }
+
+        graph = snapshot.getGraph();
+        appliedAboveHighWaterMark.clear();
+        highWaterMark = snapshot.getSyncMark().getHighWaterMark();
+        enrollmentCount = snapshot.getSyncMark().getEnrollmentCount();
+        pairChecksum = snapshot.getSyncMark().getPairChecksum();
+        // Student and course details are not in the snapshot; the caller's synchronize reads them
+        studentChecksum = -1;
+        courseChecksum = -1;
+        loaded = true;
+
+        logger.info("StudentCourseGraph restored from snapshot in {} ms: {} enrollments up to ID {}",
+                (System.nanoTime() - start) / 1_000_000, graph.getEnrollmentCount(), highWaterMark);
+        return true;
+    }
+
+    private void saveSnapshot() {
+        // Local inserts above the high-water mark are not covered by the mark yet
+        if (snapshotFile == null || !appliedAboveHighWaterMark.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            GraphSnapshot.write(graph, new GraphSnapshot.SyncMark(highWaterMark, enrollmentCount, pairChecksum), snapshotFile);
+            logger.info("Saved graph snapshot {} in {} ms", snapshotFile, (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException e) {
+            logger.warn("Could not save graph snapshot {}", snapshotFile, e);
+        }
+    }
+
+    /**
+     * Re-reads every student into the graph, replacing stale details, and records the checksum
+     * the rows were read under. Returns false when the graph holds students that no longer exist,
+     * which it cannot drop in place.
+     */
+    private boolean refreshStudents(long checksum) throws SQLException {
+        List<Student> students = studentDAO.findAll();
+        for (Student student : students) {
+            graph.addStudent(student);
+        }
+        studentChecksum = checksum;
+        return graph.getStudentCount() == students.size();
+    }
+
+    private boolean refreshCourses(long checksum) throws SQLException {
+        List<Course> courses = courseDAO.findAll();
+        for (Course course : courses) {
+            graph.addCourse(course);
+        }
+        courseChecksum = checksum;
+        return graph.getCourseCount() == courses.size();
+    }
+
+    private void applyInsert(Enrollment enrollment) {
+        enrollmentCount++;
+        pairChecksum ^= EnrollmentDAO.pairChecksum(enrollment.getStudentId(), enrollment.getCourseId());
+        if (ensureEndpoints(enrollment)) {
+            graph.addEnrollment(enrollment);
+        }
+    }
+
+    private void applyDelete(Enrollment enrollment) {
+        enrollmentCount--;
+        pairChecksum ^= EnrollmentDAO.pairChecksum(enrollment.getStudentId(), enrollment.getCourseId());
+        graph.removeEnrollment(enrollment.getStudentId(), enrollment.getCourseId());
+    }
+
+    /**
+     * Loads a student or course the graph has not seen yet, e.g. one created by another client.
+     */
+    private boolean ensureEndpoints(Enrollment enrollment) {
+        try {
+            if (graph.getStudent(enrollment.getStudentId()) == null) {
+                Student student = studentDAO.findById(enrollment.getStudentId());
+                if (student == null) return false;
+                graph.addStudent(student);
+            }
+            if (graph.getCourse(enrollment.getCourseId()) == null) {
+                Course course = courseDAO.findById(enrollment.getCourseId());
+                if (course == null) return false;
+                graph.addCourse(course);
+            }
+            return true;
+        } catch (SQLException e) {
+            logger.warn("Could not load student or course for enrollment {}", enrollment, e);
+            return false;
+        }
+    }
+}
@@ -42,6 +42,18 @@ public class StudentService {
         return studentDAO.findByName(searchTerm.trim());
     }
 
+    /**
+     * Up to limit students with a first or last name starting with the prefix, best match
+     * first, for search as you type. A blank prefix returns all students.
+     */
+    public List<Student> searchStudentsByPrefix(String prefix, int limit) throws SQLException {
+        logger.debug("Searching students with prefix: {}", prefix);
+        if (prefix == null || prefix.trim().isEmpty()) {
+            return getAllStudents();
+        }
+        return studentDAO.findByNamePrefix(prefix.trim(), limit);
+    }
+
     public Student saveStudent(Student student) throws SQLException, ValidationException {
         validateStudent(student);
 
@@ -1,5 +1,8 @@
 package com.schoolmanagementsystem.util;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -11,7 +14,9 @@ import java.sql.SQLException;
 import java.util.Properties;
 
 /**
- * Simple Database connection manager using plain JDBC (no connection pool)
+ * Database connection manager backed by a HikariCP connection pool.
+ * Pooling can be switched off with db.pool.enabled=false, in which case every
+ * call to getConnection() opens a fresh JDBC connection.
  */
 public class DatabaseManager {
     private static final Logger logger = LoggerFactory.getLogger(DatabaseManager.class);
@@ -22,6 +27,9 @@ public class DatabaseManager {
     private String username;
     private String password;
     private String driver;
+    private boolean poolEnabled;
+
+    private HikariDataSource dataSource;
 
     private DatabaseManager() {
         loadProperties();
@@ -46,6 +54,7 @@ public class DatabaseManager {
             username = properties.getProperty("db.username");
             password = properties.getProperty("db.password");
             driver = properties.getProperty("db.driver");
+            poolEnabled = Boolean.parseBoolean(properties.getProperty("db.pool.enabled", "true"));
 
         } catch (IOException e) {
             logger.error("Error loading database configuration", e);
@@ -61,10 +70,87 @@ public class DatabaseManager {
             logger.error("Failed to load JDBC driver", e);
             throw new RuntimeException("Driver class not found", e);
         }
+
+        if (poolEnabled) {
+            dataSource = new HikariDataSource(createPoolConfig());
+            logger.info("Connection pool '{}' started (max size {})",
+                    dataSource.getPoolName(), dataSource.getMaximumPoolSize());
+        } else {
+            logger.info("Connection pooling disabled, using plain JDBC connections");
+        }
+    }
+
+    private HikariConfig createPoolConfig() {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("school-management-pool");
+        config.setJdbcUrl(url);
+        config.setUsername(username);
+        config.setPassword(password);
+        config.setDriverClassName(driver);
+
+        config.setMaximumPoolSize(getIntProperty("db.pool.maximumPoolSize", 10));
+        config.setMinimumIdle(getIntProperty("db.pool.minimumIdle", 2));
+        config.setConnectionTimeout(getLongProperty("db.pool.connectionTimeoutMs", 30000));
+        config.setIdleTimeout(getLongProperty("db.pool.idleTimeoutMs", 600000));
+        config.setMaxLifetime(getLongProperty("db.pool.maxLifetimeMs", 1800000));
+        config.setLeakDetectionThreshold(getLongProperty("db.pool.leakDetectionThresholdMs", 0));
+
+        config.setDataSourceProperties(createDriverProperties());
+        return config;
+    }
+
+    /**
+     * MySQL Connector/J tuning properties shared by pooled and plain connections:
+     * prepared-statement caching, multi-row rewriting of JDBC batches and server-side cursors
+     * for statements with a positive fetch size.
+     */
+    private Properties createDriverProperties() {
+        Properties driverProperties = new Properties();
+        driverProperties.setProperty("useServerPrepStmts", properties.getProperty("db.useServerPrepStmts", "true"));
+        driverProperties.setProperty("cachePrepStmts", properties.getProperty("db.cachePrepStmts", "true"));
+        driverProperties.setProperty("prepStmtCacheSize", properties.getProperty("db.prepStmtCacheSize", "250"));
+        driverProperties.setProperty("prepStmtCacheSqlLimit", properties.getProperty("db.prepStmtCacheSqlLimit", "2048"));
+        driverProperties.setProperty("rewriteBatchedStatements", properties.getProperty("db.rewriteBatchedStatements", "true"));
+        driverProperties.setProperty("useCursorFetch", properties.getProperty("db.useCursorFetch", "true"));
+        return driverProperties;
+    }
+
+    /**
+     * Any setting from application.properties, for components that share this configuration file.
+     */
+    public String getProperty(String key, String defaultValue) {
+        return properties.getProperty(key, defaultValue);
+    }
+
+    /**
+     * Rows fetched per round trip by streaming DAO reads.
+     */
+    public int getFetchSize() {
+        return getIntProperty("db.fetchSize", 1000);
+    }
+
+    private int getIntProperty(String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        return value == null || value.trim().isEmpty() ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    private long getLongProperty(String key, long defaultValue) {
+        String value = properties.getProperty(key);
+        return value == null || value.trim().isEmpty() ? defaultValue : Long.parseLong(value.trim());
     }
 
     public Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(url, username, password);
+        if (dataSource != null) {
+            return dataSource.getConnection();
+        }
+        Properties connectionProperties = createDriverProperties();
+        connectionProperties.setProperty("user", username);
+        connectionProperties.setProperty("password", password);
+        return DriverManager.getConnection(url, connectionProperties);
+    }
+
+    public boolean isPoolEnabled() {
+        return dataSource != null;
     }
 
     public void testConnection() throws SQLException {
@@ -73,8 +159,26 @@ public class DatabaseManager {
         }
     }
 
+    /**
+     * Logs the current pool occupancy; useful when chasing connection leaks.
+     */
+    public void logPoolStatistics() {
+        if (dataSource == null) {
+            logger.info("No connection pool in use");
+            return;
+        }
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        if (pool != null) {
+            logger.info("Pool '{}': active={}, idle={}, total={}, waiting={}",
+                    dataSource.getPoolName(), pool.getActiveConnections(), pool.getIdleConnections(),
+                    pool.getTotalConnections(), pool.getThreadsAwaitingConnection());
+        }
+    }
+
     public void close() {
-        // Nothing to close in plain JDBC unless you're managing pooled resources
-        logger.info("No pooled connections to close (JDBC)");
+        if (dataSource != null && !dataSource.isClosed()) {
+            dataSource.close();
+            logger.info("Connection pool closed");
+        }
     }
 }
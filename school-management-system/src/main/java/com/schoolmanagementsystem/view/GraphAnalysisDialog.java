@@ -13,6 +13,8 @@ import java.util.List;
  * Dialog for showing graph analysis results, now shows courses for selected student.
  */
 public class GraphAnalysisDialog extends JDialog {
+    private static final int MAX_RECOMMENDATIONS = 5;
+
     private final StudentCourseGraph graph;
     private JComboBox<Student> studentComboBox;
     private JTextArea resultArea;
@@ -92,6 +94,23 @@ public class GraphAnalysisDialog extends JDialog {
                 sb.append("- ").append(course.getCourseName()).append("\n");
             }
         }
+
+        // Full courses are left out; seat counts come from the graph, not the database
+        List<StudentCourseGraph.CourseRecommendation> recommendations =
+                graph.getCourseRecommendations(selectedStudent.getStudentId(), MAX_RECOMMENDATIONS);
+        if (!recommendations.isEmpty()) {
+            sb.append("\nRecommended courses:\n\n");
+            for (StudentCourseGraph.CourseRecommendation recommendation : recommendations) {
+                Course course = recommendation.getCourse();
+                if (course == null) continue;
+                int seats = graph.getAvailableSeats(course.getCourseId());
+                sb.append("- ").append(course.getCourseName());
+                if (seats != Integer.MAX_VALUE) {
+                    sb.append(" (").append(seats).append(seats == 1 ? " seat left)" : " seats left)");
+                }
+                sb.append("\n");
+            }
+        }
         resultArea.setText(sb.toString());
     }
 }
\ No newline at end of file
@@ -1,12 +1,10 @@
 package com.schoolmanagementsystem.view;
 
 import com.schoolmanagementsystem.algorithm.graph.StudentCourseGraph;
-import com.schoolmanagementsystem.model.Student;
-import com.schoolmanagementsystem.model.Course;
-import com.schoolmanagementsystem.model.Enrollment;
 import com.schoolmanagementsystem.service.StudentService;
-import com.schoolmanagementsystem.service.EnrollmentService;
 import com.schoolmanagementsystem.service.SchedulingService;
+import com.schoolmanagementsystem.service.StudentCourseGraphService;
+import com.schoolmanagementsystem.util.DatabaseManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -14,7 +12,6 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
-import java.util.List;
 
 /**
  * Main application window with tabbed interface
@@ -24,8 +21,7 @@ public class MainWindow extends JFrame {
 
     private final StudentService studentService;
     private final SchedulingService schedulingService;
-    private final EnrollmentService enrollmentService;
-    private final StudentCourseGraph studentCourseGraph;
+    private final StudentCourseGraphService graphService;
 
     private JTabbedPane tabbedPane;
     private StudentPanel studentPanel;
@@ -36,8 +32,7 @@ public class MainWindow extends JFrame {
     public MainWindow() {
         this.studentService = new StudentService();
         this.schedulingService = new SchedulingService();
-        this.enrollmentService = new EnrollmentService();
-        this.studentCourseGraph = new StudentCourseGraph();
+        this.graphService = new StudentCourseGraphService();
 
         initializeComponents();
         setupEventHandlers();
@@ -137,7 +132,7 @@ public class MainWindow extends JFrame {
     private void analyzeStudentRelationships() {
         SwingUtilities.invokeLater(() -> {
             try {
-                populateStudentCourseGraph();
+                StudentCourseGraph studentCourseGraph = synchronizeStudentCourseGraph();
                 // Show graph analysis dialog
                 GraphAnalysisDialog dialog = new GraphAnalysisDialog(this, studentCourseGraph);
                 dialog.setVisible(true);
@@ -152,35 +147,24 @@ public class MainWindow extends JFrame {
     }
 
     /**
-     * Populates the studentCourseGraph with all students, courses, and enrollments from the database.
-     * Call this before showing the analysis dialog to ensure latest data.
+     * Brings the long-lived graph up to date with the database. Enrollment changes made in this
+     * application are already applied, so this usually costs a single query.
      */
-    private void populateStudentCourseGraph() {
-        studentCourseGraph.clear();
+    private StudentCourseGraph synchronizeStudentCourseGraph() {
         try {
-            List<Student> students = studentService.getAllStudents();
-            List<Course> courses = studentService.getAllCourses();
-            List<Enrollment> enrollments = enrollmentService.getAllEnrollments();
-
-            for (Student student : students) {
-                studentCourseGraph.addStudent(student);
-            }
-            for (Course course : courses) {
-                studentCourseGraph.addCourse(course);
-            }
-            for (Enrollment enrollment : enrollments) {
-                studentCourseGraph.addEnrollment(enrollment);
-            }
-            logger.info("StudentCourseGraph populated: {} students, {} courses, {} enrollments",
+            StudentCourseGraph studentCourseGraph = graphService.synchronize();
+            logger.info("StudentCourseGraph synchronized: {} students, {} courses, {} enrollments",
                     studentCourseGraph.getStudentCount(),
                     studentCourseGraph.getCourseCount(),
                     studentCourseGraph.getEnrollmentCount());
+            return studentCourseGraph;
         } catch (Exception ex) {
-            logger.error("Failed to populate StudentCourseGraph", ex);
+            logger.error("Failed to synchronize StudentCourseGraph", ex);
             JOptionPane.showMessageDialog(this,
                     "Failed to load student, course, or enrollment data:\n" + ex.getMessage(),
                     "Data Load Error",
                     JOptionPane.ERROR_MESSAGE);
+            return graphService.getGraph();
         }
     }
 
@@ -208,6 +192,8 @@ public class MainWindow extends JFrame {
 
         if (choice == JOptionPane.YES_OPTION) {
             logger.info("Application shutting down");
+            graphService.close();
+            DatabaseManager.getInstance().close();
             dispose();
             System.exit(0);
         }
@@ -161,7 +161,7 @@ public class SchedulePanel extends JPanel implements MainWindow.RefreshablePanel
                 statusArea.setText("Course assigned successfully.");
                 refreshData();
             } else {
-                statusArea.setText("Failed to assign course. Time slot may already be occupied.");
+                statusArea.setText("Failed to assign course. The room or the course's teacher is already booked at that time.");
             }
         } catch (SQLException e) {
             logger.error("Error assigning course to time slot", e);
@@ -199,7 +199,7 @@ public class SchedulePanel extends JPanel implements MainWindow.RefreshablePanel
                 roomField.setText("");
                 refreshData();
             } else {
-                statusArea.setText("Failed to add time slot. It may overlap with an existing slot.");
+                statusArea.setText("Failed to add time slot. It overlaps an existing slot in the same room.");
             }
         } catch (Exception e) {
             logger.error("Error adding time slot", e);
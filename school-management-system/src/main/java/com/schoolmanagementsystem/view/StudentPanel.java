@@ -6,6 +6,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
@@ -14,12 +16,19 @@ import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Panel for managing students
  */
 public class StudentPanel extends JPanel implements MainWindow.RefreshablePanel {
     private static final Logger logger = LoggerFactory.getLogger(StudentPanel.class);
+    // Quiet time after the last keystroke before searching as you type
+    private static final int TYPE_AHEAD_DELAY_MS = 250;
+    private static final int TYPE_AHEAD_LIMIT = 200;
 
     private final StudentService studentService;
     private JTable studentTable;
@@ -38,6 +47,16 @@ public class StudentPanel extends JPanel implements MainWindow.RefreshablePanel
 
     private Student selectedStudent;
 
+    // Searches run one at a time off the event thread; the fields below are only touched on it
+    private final ExecutorService searchExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "student-search");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Timer typeAheadTimer = new Timer(TYPE_AHEAD_DELAY_MS, e -> performTypeAheadSearch());
+    private Future<?> pendingSearch;
+    private long searchGeneration;
+
     public StudentPanel(StudentService studentService) {
         this.studentService = studentService;
         initializeComponents();
@@ -172,23 +191,76 @@ public class StudentPanel extends JPanel implements MainWindow.RefreshablePanel
         deleteButton.addActionListener(e -> deleteStudent());
         clearButton.addActionListener(e -> clearForm());
 
-        // Enable search on Enter key
+        // Enable search on Enter key, and by prefix as you type once typing pauses
         searchField.addActionListener(e -> performSearch());
+        typeAheadTimer.setRepeats(false);
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                typeAheadTimer.restart();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                typeAheadTimer.restart();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                // attribute changes do not alter the text
+            }
+        });
     }
 
     private void performSearch() {
-        try {
-            String searchTerm = searchField.getText().trim();
-            List<Student> students = studentService.searchStudents(searchTerm);
-            updateTable(students);
-        } catch (Exception e) {
-            logger.error("Error searching students", e);
-            showErrorMessage("Error searching students: " + e.getMessage());
+        String searchTerm = searchField.getText().trim();
+        runSearch(() -> studentService.searchStudents(searchTerm));
+    }
+
+    private void performTypeAheadSearch() {
+        String prefix = searchField.getText().trim();
+        runSearch(() -> studentService.searchStudentsByPrefix(prefix, TYPE_AHEAD_LIMIT));
+    }
+
+    /**
+     * Runs the search in the background, replacing any search still pending. Only the result of
+     * the latest search reaches the table; older ones are cancelled or dropped on arrival.
+     */
+    private void runSearch(Callable<List<Student>> search) {
+        cancelPendingSearch();
+        long generation = searchGeneration;
+        pendingSearch = searchExecutor.submit(() -> {
+            try {
+                List<Student> students = search.call();
+                SwingUtilities.invokeLater(() -> {
+                    if (generation == searchGeneration) {
+                        updateTable(students);
+                    }
+                });
+            } catch (Exception e) {
+                SwingUtilities.invokeLater(() -> {
+                    if (generation == searchGeneration) {
+                        logger.error("Error searching students", e);
+                        showErrorMessage("Error searching students: " + e.getMessage());
+                    }
+                });
+            }
+        });
+    }
+
+    /** Stops the pending search, if any, from updating the table. */
+    private void cancelPendingSearch() {
+        typeAheadTimer.stop();
+        searchGeneration++;
+        if (pendingSearch != null) {
+            pendingSearch.cancel(true);
+            pendingSearch = null;
         }
     }
 
     @Override
     public void refreshData() {
+        cancelPendingSearch();
         try {
             List<Student> students = studentService.getAllStudents();
             updateTable(students);